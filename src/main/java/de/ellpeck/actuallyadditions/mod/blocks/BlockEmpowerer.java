@@ -57,7 +57,7 @@ public class BlockEmpowerer extends BlockContainerBase{
             if(empowerer != null){
                 ItemStack stackThere = empowerer.slots.getStackInSlot(0);
                 if(StackUtil.isValid(heldItem)){
-                    if(!StackUtil.isValid(stackThere) && !TileEntityEmpowerer.getRecipesForInput(heldItem).isEmpty()){
+                    if(!StackUtil.isValid(stackThere) && TileEntityEmpowerer.hasRecipeForInput(heldItem)){
                         ItemStack toPut = heldItem.copy();
                         toPut = StackUtil.setStackSize(toPut, 1);
                         empowerer.slots.setStackInSlot(0, toPut);
@@ -276,6 +276,13 @@ public class BlockLaserRelay extends BlockContainerBase implements IHudDisplay{
 
     @Override
     public void breakBlock(World world, BlockPos pos, IBlockState state){
+        if(!world.isRemote){
+            TileEntity tile = world.getTileEntity(pos);
+            if(tile instanceof TileEntityLaserRelay){
+                ((TileEntityLaserRelay)tile).onBroken();
+            }
+        }
+
         super.breakBlock(world, pos, state);
 
         ActuallyAdditionsAPI.connectionHandler.removeRelayFromNetwork(pos, world);
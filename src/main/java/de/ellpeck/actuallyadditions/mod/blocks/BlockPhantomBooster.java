@@ -11,6 +11,7 @@
 package de.ellpeck.actuallyadditions.mod.blocks;
 
 import de.ellpeck.actuallyadditions.mod.blocks.base.BlockContainerBase;
+import de.ellpeck.actuallyadditions.mod.tile.TileEntityBase;
 import de.ellpeck.actuallyadditions.mod.tile.TileEntityPhantomBooster;
 import net.minecraft.block.SoundType;
 import net.minecraft.block.material.Material;
@@ -56,6 +57,35 @@ public class BlockPhantomBooster extends BlockContainerBase{
     }
 
 
+    @Override
+    public void onBlockAdded(World world, BlockPos pos, IBlockState state){
+        super.onBlockAdded(world, pos, state);
+        updateBoostedTile(world, pos);
+    }
+
+    @Override
+    public void breakBlock(World world, BlockPos pos, IBlockState state){
+        super.breakBlock(world, pos, state);
+        updateBoostedTile(world, pos);
+    }
+
+    /**
+     * Lets the tile below a stack of boosters know that the stack changed,
+     * as only the booster right above it causes a neighbor update
+     */
+    private static void updateBoostedTile(World world, BlockPos pos){
+        for(int i = 1; i <= 3; i++){
+            BlockPos below = pos.down(i);
+            if(world.getBlockState(below).getBlock() != InitBlocks.blockPhantomBooster){
+                TileEntity tile = world.getTileEntity(below);
+                if(tile instanceof TileEntityBase){
+                    ((TileEntityBase)tile).updatePhantomBoosters();
+                }
+                break;
+            }
+        }
+    }
+
     @Override
     public TileEntity createNewTileEntity(World world, int i){
         return new TileEntityPhantomBooster();
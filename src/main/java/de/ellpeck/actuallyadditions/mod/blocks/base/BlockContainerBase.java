@@ -149,6 +149,8 @@ public abstract class BlockContainerBase extends BlockContainer implements ItemB
         TileEntity tile = world.getTileEntity(pos);
         if(tile instanceof TileEntityBase){
             TileEntityBase base = (TileEntityBase)tile;
+            base.updatePhantomBoosters();
+            base.wakeUp();
             if(base.shouldSaveDataOnChangeOrWorldStart()){
                 base.saveDataOnChangeOrWorldStart();
             }
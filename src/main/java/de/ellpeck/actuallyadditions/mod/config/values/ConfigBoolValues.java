@@ -52,6 +52,9 @@ public enum ConfigBoolValues{
     TINY_COAL_STUFF("Tiny Coal", ConfigCategories.OTHER, true, "Should Tiny Coal and Tiny Charcoal be craftable"),
 
     LASER_RELAY_LOSS("Laser Relay Energy Loss", ConfigCategories.MACHINE_VALUES, true, "If Energy Laser Relays should have energy loss"),
+    FARMER_CHANGE_TRACKING("Farmer Change Tracking", ConfigCategories.MACHINE_VALUES, false, "If the Farmer should only check the positions of its field where blocks have changed or crops have grown instead of going through all of them one by one. Positions are still checked one by one every now and then in case a crop grows without telling anyone."),
+    LASER_RELAY_ENERGY_BATCHING("Laser Relay Energy Batching", ConfigCategories.MACHINE_VALUES, false, "If Energy Laser Relays should collect all energy that is put into a network during a tick and split it between all receivers once per tick instead of sending it through the network every time a generator inserts energy. This is fairer and faster with a lot of generators."),
+    LASER_RELAY_FLUID_BATCHING("Laser Relay Fluid Batching", ConfigCategories.MACHINE_VALUES, false, "If Fluid Laser Relays should collect all fluid that is put into a network during a tick and split it between all receivers once per tick instead of sending it through the network every time something inserts fluid. Every relay can only hold one kind of fluid at a time for this."),
 
     SUPER_DUPER_HARD_MODE("Super Duper Hard Recipes", ConfigCategories.OTHER, false, "Turn this on to make recipes for items from the mod really hard. (This is a joke feature poking fun at the whole FTB Infinity Expert Mode style of playing. You shouldn't really turn this on as it makes the mod completely unplayable.)"),
     MOST_BLAND_PERSON_EVER("No Colored Item Names", ConfigCategories.OTHER, false, "If you want to be really boring and lame, you can turn on this setting to disable colored names on Actually Additions items. Because why would you want things to look pretty anyways, right?");
@@ -22,6 +22,9 @@ public enum ConfigIntValues{
     LUSH_CAVE_CHANCE("Lush Caves: Chance", ConfigCategories.WORLD_GEN, 20, 1, 100, "The chances for lush caves to generate. The lower the number, the higher the chances."),
     WORMS_DIE_TIME("Worm Death Time", ConfigCategories.OTHER, 0, 0, 10000000, "The amount of ticks it takes for a worm to die. When at 0 ticks, it will not die."),
 
+    MINER_BLOCKS_PER_OPERATION("Miner Blocks Per Operation", ConfigCategories.MACHINE_VALUES, 1, 1, 1000, "The maximum amount of blocks the Vertical Digger breaks every time it mines, as long as it has enough energy for all of them. Air and empty parts of the world are skipped and don't count towards this."),
+    RANGED_COLLECTOR_POLL_INTERVAL("Ranged Collector Poll Interval", ConfigCategories.MACHINE_VALUES, 20, 0, 1000, "The Ranged Collector only looks at items when they appear or move into a chunk it covers, and goes through all items around it again when its inventory changes. Additionally, it goes through all of them every this many ticks to catch items that rolled into its range from within the same chunk. Set to 0 to only rely on the events."),
+    LASER_ITEM_PARTICLES_PER_SECOND("Laser Item Particles Per Second", ConfigCategories.MACHINE_VALUES, 200, 0, 100000, "The maximum amount of item particles that are sent to a player every second for items moving through Item Laser Relays. Set to 0 to send none."),
     TILE_ENTITY_UPDATE_INTERVAL("Tile Entities: Update Interval", ConfigCategories.OTHER, 5, 1, 100, "The amount of ticks waited before a TileEntity sends an additional Update to the Client"),
     CTRL_INFO_NBT_CHAR_LIMIT("Advanced Info NBT Character Limit", ConfigCategories.OTHER, 1000, 0, 100000000, "The maximum amount of characters that is displayed by the NBT view of the CTRL Advanced Info. Set to a zero to have no limit"),
 
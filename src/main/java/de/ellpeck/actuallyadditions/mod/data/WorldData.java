@@ -10,6 +10,7 @@
 
 package de.ellpeck.actuallyadditions.mod.data;
 
+import de.ellpeck.actuallyadditions.api.laser.IConnectionPair;
 import de.ellpeck.actuallyadditions.api.laser.Network;
 import de.ellpeck.actuallyadditions.mod.data.PlayerData.PlayerSave;
 import de.ellpeck.actuallyadditions.mod.misc.apiimpl.LaserRelayConnectionHandler;
@@ -17,6 +18,7 @@ import de.ellpeck.actuallyadditions.mod.util.ModUtil;
 import io.netty.util.internal.ConcurrentSet;
 import net.minecraft.nbt.NBTTagCompound;
 import net.minecraft.nbt.NBTTagList;
+import net.minecraft.util.math.BlockPos;
 import net.minecraft.world.World;
 import net.minecraft.world.WorldServer;
 import net.minecraft.world.storage.ISaveHandler;
@@ -26,6 +28,7 @@ import net.minecraftforge.common.WorldSpecificSaveHandler;
 import java.io.File;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
 
@@ -35,7 +38,9 @@ public class WorldData extends WorldSavedData{
     //TODO Remove this as well
     public static List<File> legacyLoadWorlds = new ArrayList<File>();
     private static WorldData data;
-    public final ConcurrentSet<Network> laserRelayNetworks = new ConcurrentSet<Network>();
+    public final ConcurrentHashMap<Integer, DimensionData> dimensionData = new ConcurrentHashMap<Integer, DimensionData>();
+    //Dimensions that aren't loaded keep their data in serialized form until they are needed again
+    private final ConcurrentHashMap<Integer, NBTTagCompound> unloadedDimensionData = new ConcurrentHashMap<Integer, NBTTagCompound>();
     public final ConcurrentHashMap<UUID, PlayerSave> playerSaveData = new ConcurrentHashMap<UUID, PlayerSave>();
 
     public WorldData(String name){
@@ -94,16 +99,57 @@ public class WorldData extends WorldSavedData{
         }
     }
 
+    /**
+     * Moves the data of a dimension that is being unloaded into serialized form
+     * so that its laser networks don't have to be kept in memory
+     */
+    public static void unloadDimension(World world){
+        //The client and the integrated server can share the same data, so only the server is allowed to release it
+        if(data != null && !world.isRemote){
+            int dim = world.provider.getDimension();
+            DimensionData dimData = data.dimensionData.get(dim);
+            if(dimData != null){
+                data.unloadedDimensionData.put(dim, dimData.writeToNBT(new NBTTagCompound()));
+                data.dimensionData.remove(dim);
+            }
+        }
+    }
+
+    public DimensionData getDimensionData(World world){
+        int dim = world.provider.getDimension();
+        DimensionData dimData = this.dimensionData.get(dim);
+        if(dimData == null){
+            dimData = new DimensionData();
+
+            NBTTagCompound compound = this.unloadedDimensionData.get(dim);
+            if(compound != null){
+                dimData.readFromNBT(compound);
+            }
+
+            this.dimensionData.put(dim, dimData);
+            this.unloadedDimensionData.remove(dim);
+        }
+        return dimData;
+    }
+
     //TODO Remove merging once removing old save handler
     private void readFromNBT(NBTTagCompound compound, boolean merge){
         //Laser World Data
         if(!merge){
-            this.laserRelayNetworks.clear();
+            this.dimensionData.clear();
+            this.unloadedDimensionData.clear();
         }
-        NBTTagList networkList = compound.getTagList("Networks", 10);
-        for(int i = 0; i < networkList.tagCount(); i++){
-            Network network = LaserRelayConnectionHandler.readNetworkFromNBT(networkList.getCompoundTagAt(i));
-            this.laserRelayNetworks.add(network);
+        //Dimensions are only deserialized once they are first accessed
+        NBTTagList dimensionList = compound.getTagList("Dimensions", 10);
+        for(int i = 0; i < dimensionList.tagCount(); i++){
+            NBTTagCompound dimension = dimensionList.getCompoundTagAt(i);
+            this.unloadedDimensionData.put(dimension.getInteger("Dim"), dimension);
+        }
+        //Networks from before they were saved per dimension get put into the overworld
+        if(compound.hasKey("Networks")){
+            NBTTagCompound legacy = new NBTTagCompound();
+            legacy.setTag("Networks", compound.getTagList("Networks", 10));
+            this.unloadedDimensionData.put(0, legacy);
         }
 
         //Player Data
@@ -131,11 +177,20 @@ public class WorldData extends WorldSavedData{
     @Override
     public NBTTagCompound writeToNBT(NBTTagCompound compound){
         //Laser World Data
-        NBTTagList networkList = new NBTTagList();
-        for(Network network : this.laserRelayNetworks){
-            networkList.appendTag(LaserRelayConnectionHandler.writeNetworkToNBT(network));
+        NBTTagList dimensionList = new NBTTagList();
+        for(Map.Entry<Integer, DimensionData> entry : this.dimensionData.entrySet()){
+            NBTTagCompound dimension = entry.getValue().writeToNBT(new NBTTagCompound());
+            dimension.setInteger("Dim", entry.getKey());
+            dimensionList.appendTag(dimension);
+        }
+        for(Map.Entry<Integer, NBTTagCompound> entry : this.unloadedDimensionData.entrySet()){
+            if(!this.dimensionData.containsKey(entry.getKey())){
+                NBTTagCompound dimension = entry.getValue().copy();
+                dimension.setInteger("Dim", entry.getKey());
+                dimensionList.appendTag(dimension);
+            }
         }
-        compound.setTag("Networks", networkList);
+        compound.setTag("Dimensions", dimensionList);
 
         //Player Data
         NBTTagList playerList = new NBTTagList();
@@ -153,4 +208,69 @@ public class WorldData extends WorldSavedData{
 
         return compound;
     }
+
+    public static class DimensionData{
+
+        public final ConcurrentSet<Network> laserRelayNetworks = new ConcurrentSet<Network>();
+        //Lookup tables for relay positions, kept in sync with laserRelayNetworks by the LaserRelayConnectionHandler
+        public final ConcurrentHashMap<BlockPos, Network> networksByRelay = new ConcurrentHashMap<BlockPos, Network>();
+        public final ConcurrentHashMap<BlockPos, ConcurrentSet<IConnectionPair>> connectionsByRelay = new ConcurrentHashMap<BlockPos, ConcurrentSet<IConnectionPair>>();
+
+        /**
+         * Registers a network and indexes all of its connections
+         */
+        public void addNetwork(Network network){
+            this.laserRelayNetworks.add(network);
+            for(IConnectionPair pair : network.connections){
+                this.indexConnection(network, pair);
+            }
+        }
+
+        public void indexConnection(Network network, IConnectionPair pair){
+            for(BlockPos relay : pair.getPositions()){
+                if(relay != null){
+                    this.networksByRelay.put(relay, network);
+
+                    ConcurrentSet<IConnectionPair> pairs = this.connectionsByRelay.get(relay);
+                    if(pairs == null){
+                        pairs = new ConcurrentSet<IConnectionPair>();
+                        this.connectionsByRelay.put(relay, pairs);
+                    }
+                    pairs.add(pair);
+                }
+            }
+        }
+
+        public void unindexConnection(Network network, IConnectionPair pair){
+            for(BlockPos relay : pair.getPositions()){
+                if(relay != null){
+                    ConcurrentSet<IConnectionPair> pairs = this.connectionsByRelay.get(relay);
+                    if(pairs != null){
+                        pairs.remove(pair);
+                        if(pairs.isEmpty()){
+                            this.connectionsByRelay.remove(relay);
+                            this.networksByRelay.remove(relay, network);
+                        }
+                    }
+                }
+            }
+        }
+
+        public void readFromNBT(NBTTagCompound compound){
+            NBTTagList networkList = compound.getTagList("Networks", 10);
+            for(int i = 0; i < networkList.tagCount(); i++){
+                Network network = LaserRelayConnectionHandler.readNetworkFromNBT(networkList.getCompoundTagAt(i));
+                this.addNetwork(network);
+            }
+        }
+
+        public NBTTagCompound writeToNBT(NBTTagCompound compound){
+            NBTTagList networkList = new NBTTagList();
+            for(Network network : this.laserRelayNetworks){
+                networkList.appendTag(LaserRelayConnectionHandler.writeNetworkToNBT(network));
+            }
+            compound.setTag("Networks", networkList);
+            return compound;
+        }
+    }
 }
@@ -19,8 +19,11 @@ import de.ellpeck.actuallyadditions.mod.items.ItemBag;
 import de.ellpeck.actuallyadditions.mod.items.ItemDrill;
 import de.ellpeck.actuallyadditions.mod.items.metalists.TheMiscItems;
 import de.ellpeck.actuallyadditions.mod.misc.DungeonLoot;
+import de.ellpeck.actuallyadditions.mod.network.ItemParticleBatcher;
 import de.ellpeck.actuallyadditions.mod.network.PacketHandlerHelper;
 import de.ellpeck.actuallyadditions.mod.tile.FilterSettings;
+import de.ellpeck.actuallyadditions.mod.tile.TileEntityFarmer;
+import de.ellpeck.actuallyadditions.mod.util.ItemEntityTracker;
 import de.ellpeck.actuallyadditions.mod.util.ItemStackHandlerCustom;
 import de.ellpeck.actuallyadditions.mod.util.ItemUtil;
 import de.ellpeck.actuallyadditions.mod.util.ModUtil;
@@ -33,11 +36,15 @@ import net.minecraft.entity.player.EntityPlayerMP;
 import net.minecraft.init.Blocks;
 import net.minecraft.item.ItemStack;
 import net.minecraftforge.common.MinecraftForge;
+import net.minecraftforge.event.entity.EntityEvent;
+import net.minecraftforge.event.entity.EntityJoinWorldEvent;
 import net.minecraftforge.event.entity.living.LivingDropsEvent;
 import net.minecraftforge.event.entity.player.EntityItemPickupEvent;
 import net.minecraftforge.event.world.BlockEvent;
+import net.minecraftforge.event.world.ChunkEvent;
 import net.minecraftforge.event.world.WorldEvent;
 import net.minecraftforge.fml.common.eventhandler.Event;
+import net.minecraftforge.fml.common.eventhandler.EventPriority;
 import net.minecraftforge.fml.common.eventhandler.SubscribeEvent;
 import net.minecraftforge.fml.common.gameevent.PlayerEvent;
 
@@ -48,6 +55,7 @@ public class CommonEvents{
     public CommonEvents(){
         MinecraftForge.EVENT_BUS.register(this);
         MinecraftForge.EVENT_BUS.register(new DungeonLoot());
+        MinecraftForge.EVENT_BUS.register(new ItemParticleBatcher());
     }
 
     @SubscribeEvent
@@ -205,4 +213,41 @@ public class CommonEvents{
     public void onLoad(WorldEvent.Load event){
         WorldData.loadLegacy(event.getWorld());
     }
+
+    @SubscribeEvent
+    public void onUnload(WorldEvent.Unload event){
+        WorldData.unloadDimension(event.getWorld());
+        TileEntityFarmer.onWorldUnload(event.getWorld());
+        ItemEntityTracker.onWorldUnload(event.getWorld());
+    }
+
+    @SubscribeEvent
+    public void onChunkUnload(ChunkEvent.Unload event){
+        ItemEntityTracker.onChunkUnload(event.getWorld(), event.getChunk().getPos());
+    }
+
+    //Lowest priority so that items that get stopped from joining by someone else aren't tracked
+    @SubscribeEvent(priority = EventPriority.LOWEST)
+    public void onEntityJoinWorld(EntityJoinWorldEvent event){
+        if(event.getEntity() instanceof EntityItem){
+            ItemEntityTracker.onItemJoinWorld((EntityItem)event.getEntity());
+        }
+    }
+
+    @SubscribeEvent
+    public void onEntityEnterChunk(EntityEvent.EnteringChunk event){
+        if(event.getEntity() instanceof EntityItem){
+            ItemEntityTracker.onItemEnterChunk((EntityItem)event.getEntity(), event.getOldChunkX(), event.getOldChunkZ(), event.getNewChunkX(), event.getNewChunkZ());
+        }
+    }
+
+    @SubscribeEvent
+    public void onNeighborNotify(BlockEvent.NeighborNotifyEvent event){
+        TileEntityFarmer.onBlockChanged(event.getWorld(), event.getPos());
+    }
+
+    @SubscribeEvent
+    public void onCropGrow(BlockEvent.CropGrowEvent.Post event){
+        TileEntityFarmer.onBlockChanged(event.getWorld(), event.getPos());
+    }
 }
@@ -11,17 +11,15 @@
 package de.ellpeck.actuallyadditions.mod.inventory.gui;
 
 import de.ellpeck.actuallyadditions.mod.inventory.ContainerBag;
-import de.ellpeck.actuallyadditions.mod.network.PacketClientToServer;
+import de.ellpeck.actuallyadditions.mod.network.PacketGuiButton;
 import de.ellpeck.actuallyadditions.mod.network.PacketHandler;
 import de.ellpeck.actuallyadditions.mod.util.AssetUtil;
 import de.ellpeck.actuallyadditions.mod.util.ModUtil;
 import de.ellpeck.actuallyadditions.mod.util.StringUtil;
-import net.minecraft.client.Minecraft;
 import net.minecraft.client.gui.GuiButton;
 import net.minecraft.client.renderer.GlStateManager;
 import net.minecraft.entity.player.InventoryPlayer;
 import net.minecraft.item.ItemStack;
-import net.minecraft.nbt.NBTTagCompound;
 import net.minecraft.util.ResourceLocation;
 import net.minecraft.util.text.TextFormatting;
 import net.minecraftforge.fml.relauncher.Side;
@@ -66,11 +64,7 @@ public class GuiBag extends GuiWtfMojang{
 
     @Override
     protected void actionPerformed(GuiButton button) throws IOException{
-        NBTTagCompound data = new NBTTagCompound();
-        data.setInteger("ButtonID", button.id);
-        data.setInteger("PlayerID", Minecraft.getMinecraft().player.getEntityId());
-        data.setInteger("WorldID", Minecraft.getMinecraft().world.provider.getDimension());
-        PacketHandler.theNetwork.sendToServer(new PacketClientToServer(data, PacketHandler.GUI_BUTTON_TO_CONTAINER_HANDLER));
+        PacketHandler.theNetwork.sendToServer(new PacketGuiButton(null, button.id));
     }
 
     @Override
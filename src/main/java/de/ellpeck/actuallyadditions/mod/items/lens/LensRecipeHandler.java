@@ -11,8 +11,13 @@
 package de.ellpeck.actuallyadditions.mod.items.lens;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import de.ellpeck.actuallyadditions.api.ActuallyAdditionsAPI;
+import de.ellpeck.actuallyadditions.api.lens.Lens;
 import de.ellpeck.actuallyadditions.api.recipe.ColorLensChangerByDyeMeta;
 import de.ellpeck.actuallyadditions.api.recipe.IColorLensChanger;
 import de.ellpeck.actuallyadditions.api.recipe.LensConversionRecipe;
@@ -21,8 +26,11 @@ import de.ellpeck.actuallyadditions.mod.items.InitItems;
 import de.ellpeck.actuallyadditions.mod.items.metalists.TheCrystals;
 import de.ellpeck.actuallyadditions.mod.items.metalists.TheMiscItems;
 import de.ellpeck.actuallyadditions.mod.recipe.EnchBookConversion;
+import de.ellpeck.actuallyadditions.mod.recipe.RecipeInputIndex;
 import de.ellpeck.actuallyadditions.mod.util.ItemUtil;
 import de.ellpeck.actuallyadditions.mod.util.RecipeUtil;
+import net.minecraft.block.Block;
+import net.minecraft.block.state.IBlockState;
 import net.minecraft.init.Blocks;
 import net.minecraft.init.Items;
 import net.minecraft.item.Item;
@@ -45,6 +53,20 @@ public final class LensRecipeHandler{
     public static LensConversionRecipe recipeFluidLaser;
     public static EnchBookConversion recipeEnchBook;
 
+    private static final Map<Lens, Map<IBlockState, List<LensConversionRecipe>>> STATE_CACHE = new ConcurrentHashMap<Lens, Map<IBlockState, List<LensConversionRecipe>>>();
+    private static final RecipeInputIndex<LensConversionRecipe> RECIPE_INDEX = new RecipeInputIndex<LensConversionRecipe>(ActuallyAdditionsAPI.RECONSTRUCTOR_LENS_CONVERSION_RECIPES){
+        @Override
+        protected ItemStack getInput(LensConversionRecipe recipe){
+            return recipe.inputStack;
+        }
+
+        @Override
+        protected Object getGroup(LensConversionRecipe recipe){
+            return recipe.type;
+        }
+    };
+    private static volatile int stateCacheVersion = -1;
+
     public static void init(){
         //Crystal Blocks
         ActuallyAdditionsAPI.addReconstructorLensConversionRecipe(new ItemStack(Blocks.REDSTONE_BLOCK), new ItemStack(InitBlocks.blockCrystal, 1, TheCrystals.REDSTONE.ordinal()), 400);
@@ -121,6 +143,47 @@ public final class LensRecipeHandler{
         ActuallyAdditionsAPI.addReconstructorLensColorChangeItem(Item.getItemFromBlock(InitBlocks.blockColoredLampOn), changer);
     }
 
+    /**
+     * Returns the recipes for the lens that accept the given item, in the order they were registered.
+     * The returned list is shared and must not be modified.
+     */
+    public static List<LensConversionRecipe> getRecipesFor(Lens lens, Item item, int meta){
+        return RECIPE_INDEX.getRecipes(lens, item, meta);
+    }
+
+    /**
+     * Returns the recipes for the lens that accept the item form of the given block state.
+     * The result is cached per state, so no stack has to be created to look it up.
+     * The returned list is shared and must not be modified.
+     */
+    public static List<LensConversionRecipe> getRecipesFor(Lens lens, IBlockState state){
+        int version = RECIPE_INDEX.getVersion();
+        if(stateCacheVersion != version){
+            STATE_CACHE.clear();
+            stateCacheVersion = version;
+        }
+
+        Map<IBlockState, List<LensConversionRecipe>> lensCache = STATE_CACHE.get(lens);
+        if(lensCache == null){
+            lensCache = new ConcurrentHashMap<IBlockState, List<LensConversionRecipe>>();
+            STATE_CACHE.put(lens, lensCache);
+        }
+
+        List<LensConversionRecipe> recipes = lensCache.get(state);
+        if(recipes == null || !RECIPE_INDEX.areStillRegistered(recipes)){
+            Block block = state.getBlock();
+            Item item = Item.getItemFromBlock(block);
+            if(item != Items.AIR){
+                recipes = getRecipesFor(lens, item, block.getMetaFromState(state));
+            }
+            else{
+                recipes = Collections.emptyList();
+            }
+            lensCache.put(state, recipes);
+        }
+        return recipes;
+    }
+
     public static ArrayList<LensConversionRecipe> getRecipesFor(ItemStack input){
         ArrayList<LensConversionRecipe> possibleRecipes = new ArrayList<LensConversionRecipe>();
         for(LensConversionRecipe recipe : ActuallyAdditionsAPI.RECONSTRUCTOR_LENS_CONVERSION_RECIPES){
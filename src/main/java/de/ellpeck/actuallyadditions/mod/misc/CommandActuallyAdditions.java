@@ -0,0 +1,111 @@
+/*
+ * This file ("CommandActuallyAdditions.java") is part of the Actually Additions mod for Minecraft.
+ * It is created and owned by Ellpeck and distributed
+ * under the Actually Additions License to be found at
+ * http://ellpeck.de/actaddlicense
+ * View the source code at https://github.com/Ellpeck/ActuallyAdditions
+ *
+ * © 2015-2017 Ellpeck
+ */
+
+package de.ellpeck.actuallyadditions.mod.misc;
+
+import de.ellpeck.actuallyadditions.mod.data.WorldData;
+import de.ellpeck.actuallyadditions.mod.util.ModUtil;
+import de.ellpeck.actuallyadditions.mod.util.TickProfiler;
+import net.minecraft.command.CommandBase;
+import net.minecraft.command.CommandException;
+import net.minecraft.command.ICommandSender;
+import net.minecraft.command.WrongUsageException;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.text.TextComponentString;
+import net.minecraft.util.text.TextComponentTranslation;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+public class CommandActuallyAdditions extends CommandBase{
+
+    private static final int DEFAULT_DUMP_AMOUNT = 10;
+
+    @Override
+    public String getName(){
+        return "aa";
+    }
+
+    @Override
+    public String getUsage(ICommandSender sender){
+        return "command."+ModUtil.MOD_ID+".aa.usage";
+    }
+
+    @Override
+    public int getRequiredPermissionLevel(){
+        return 2;
+    }
+
+    @Override
+    public void execute(MinecraftServer server, ICommandSender sender, String[] args) throws CommandException{
+        if(args.length >= 2 && "profile".equals(args[0])){
+            String action = args[1];
+            if("start".equals(action)){
+                TickProfiler.start();
+                sender.sendMessage(new TextComponentTranslation("command."+ModUtil.MOD_ID+".aa.profile.start"));
+                return;
+            }
+            else if("stop".equals(action)){
+                TickProfiler.stop();
+                sender.sendMessage(new TextComponentTranslation("command."+ModUtil.MOD_ID+".aa.profile.stop"));
+                return;
+            }
+            else if("reset".equals(action)){
+                TickProfiler.reset();
+                sender.sendMessage(new TextComponentTranslation("command."+ModUtil.MOD_ID+".aa.profile.reset"));
+                return;
+            }
+            else if("dump".equals(action)){
+                int amount = args.length >= 3 ? parseInt(args[2], 1) : DEFAULT_DUMP_AMOUNT;
+                this.dump(sender, amount);
+                return;
+            }
+        }
+        throw new WrongUsageException(this.getUsage(sender));
+    }
+
+    private void dump(ICommandSender sender, int amount){
+        sender.sendMessage(new TextComponentTranslation("command."+ModUtil.MOD_ID+".aa.profile.dump", formatMillis(TickProfiler.getProfiledTime())));
+
+        sender.sendMessage(new TextComponentTranslation("command."+ModUtil.MOD_ID+".aa.profile.tileClasses"));
+        this.dumpEntries(sender, TickProfiler.getTopTileClasses(amount));
+
+        sender.sendMessage(new TextComponentTranslation("command."+ModUtil.MOD_ID+".aa.profile.tilePositions"));
+        this.dumpEntries(sender, TickProfiler.getTopTilePositions(amount));
+
+        sender.sendMessage(new TextComponentTranslation("command."+ModUtil.MOD_ID+".aa.profile.networks"));
+        this.dumpEntries(sender, TickProfiler.getTopNetworks(WorldData.get(sender.getEntityWorld()), amount));
+    }
+
+    private void dumpEntries(ICommandSender sender, List<TickProfiler.Entry> entries){
+        for(int i = 0; i < entries.size(); i++){
+            TickProfiler.Entry entry = entries.get(i);
+            String average = String.format(Locale.ROOT, "%.2f", entry.nanos/1000D/entry.calls);
+            sender.sendMessage(new TextComponentString((i+1)+". "+entry.name+": "+formatMillis(entry.nanos)+"ms, "+entry.calls+" calls, "+average+"\u00B5s/call"));
+        }
+    }
+
+    private static String formatMillis(long nanos){
+        return String.format(Locale.ROOT, "%.2f", nanos/1000000D);
+    }
+
+    @Override
+    public List<String> getTabCompletions(MinecraftServer server, ICommandSender sender, String[] args, BlockPos targetPos){
+        if(args.length == 1){
+            return getListOfStringsMatchingLastWord(args, "profile");
+        }
+        else if(args.length == 2 && "profile".equals(args[0])){
+            return getListOfStringsMatchingLastWord(args, "start", "stop", "reset", "dump");
+        }
+        return Collections.emptyList();
+    }
+}
@@ -15,6 +15,7 @@ import de.ellpeck.actuallyadditions.api.laser.ILaserRelayConnectionHandler;
 import de.ellpeck.actuallyadditions.api.laser.LaserType;
 import de.ellpeck.actuallyadditions.api.laser.Network;
 import de.ellpeck.actuallyadditions.mod.data.WorldData;
+import de.ellpeck.actuallyadditions.mod.data.WorldData.DimensionData;
 import de.ellpeck.actuallyadditions.mod.tile.TileEntityLaserRelay;
 import io.netty.util.internal.ConcurrentSet;
 import net.minecraft.nbt.NBTTagCompound;
@@ -23,6 +24,11 @@ import net.minecraft.tileentity.TileEntity;
 import net.minecraft.util.math.BlockPos;
 import net.minecraft.world.World;
 
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Set;
+
 public final class LaserRelayConnectionHandler implements ILaserRelayConnectionHandler{
 
     public static NBTTagCompound writeNetworkToNBT(Network network){
@@ -50,18 +56,145 @@ public final class LaserRelayConnectionHandler implements ILaserRelayConnectionH
 
     /**
      * Merges two laserRelayNetworks together
-     * (Actually puts everything from the second network into the first one and removes the second one)
+     * (Actually puts everything from the smaller network into the bigger one and removes the smaller one)
+     *
+     * @return The network that remains
      */
-    private static void mergeNetworks(Network firstNetwork, Network secondNetwork, World world){
+    private static Network mergeNetworks(Network firstNetwork, Network secondNetwork, World world){
+        //Only ever move the smaller network so that repeated merging stays cheap
+        if(firstNetwork.connections.size() < secondNetwork.connections.size()){
+            Network temp = firstNetwork;
+            firstNetwork = secondNetwork;
+            secondNetwork = temp;
+        }
+
+        WorldData data = WorldData.get(world);
+        DimensionData networks = data.getDimensionData(world);
         for(IConnectionPair secondPair : secondNetwork.connections){
             firstNetwork.connections.add(secondPair);
+            networks.indexConnection(firstNetwork, secondPair);
         }
 
-        WorldData data = WorldData.get(world);
         secondNetwork.changeAmount++;
-        data.laserRelayNetworks.remove(secondNetwork);
+        networks.laserRelayNetworks.remove(secondNetwork);
         data.markDirty();
         //System.out.println("Merged Two Networks!");
+        return firstNetwork;
+    }
+
+    /**
+     * Removes a single connection from the network it is in
+     * and splits that network in two if the connection was the only link between both halves
+     */
+    private static void removePairFromNetwork(IConnectionPair pair, DimensionData networks){
+        BlockPos[] positions = pair.getPositions();
+        Network network = networks.networksByRelay.get(positions[0]);
+        if(network != null){
+            network.connections.remove(pair);
+            networks.unindexConnection(network, pair);
+            network.changeAmount++;
+
+            if(network.connections.isEmpty()){
+                networks.laserRelayNetworks.remove(network);
+            }
+            else{
+                splitIfDisconnected(network, positions[0], positions[1], networks);
+            }
+        }
+    }
+
+    /**
+     * Searches outwards from both relays at the same time until either the searches meet (the relays are still connected)
+     * or one of them runs out of relays to visit, in which case the relays it visited are moved into a network of their own.
+     * This way, only the smaller of the two resulting parts ever has to be looked at completely.
+     */
+    private static void splitIfDisconnected(Network network, BlockPos firstRelay, BlockPos secondRelay, DimensionData networks){
+        Set<BlockPos> firstVisited = new HashSet<BlockPos>();
+        Set<BlockPos> secondVisited = new HashSet<BlockPos>();
+        Deque<BlockPos> firstQueue = new ArrayDeque<BlockPos>();
+        Deque<BlockPos> secondQueue = new ArrayDeque<BlockPos>();
+
+        firstVisited.add(firstRelay);
+        firstQueue.add(firstRelay);
+        secondVisited.add(secondRelay);
+        secondQueue.add(secondRelay);
+
+        while(true){
+            if(firstQueue.isEmpty()){
+                splitOffNetwork(network, firstVisited, networks);
+                return;
+            }
+            if(secondQueue.isEmpty()){
+                splitOffNetwork(network, secondVisited, networks);
+                return;
+            }
+
+            if(visitNext(firstQueue, firstVisited, secondVisited, networks) || visitNext(secondQueue, secondVisited, firstVisited, networks)){
+                return;
+            }
+        }
+    }
+
+    /**
+     * Visits the next relay in the queue
+     *
+     * @return If the search reached a relay that the other search already visited
+     */
+    private static boolean visitNext(Deque<BlockPos> queue, Set<BlockPos> visited, Set<BlockPos> otherVisited, DimensionData networks){
+        BlockPos relay = queue.poll();
+        ConcurrentSet<IConnectionPair> pairs = networks.connectionsByRelay.get(relay);
+        if(pairs != null){
+            for(IConnectionPair pair : pairs){
+                for(BlockPos other : pair.getPositions()){
+                    if(other != null && !other.equals(relay)){
+                        if(otherVisited.contains(other)){
+                            return true;
+                        }
+                        if(visited.add(other)){
+                            queue.add(other);
+                        }
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Moves all connections of the given relays into a new network
+     */
+    private static void splitOffNetwork(Network oldNetwork, Set<BlockPos> relays, DimensionData networks){
+        Network newNetwork = null;
+        for(BlockPos relay : relays){
+            ConcurrentSet<IConnectionPair> pairs = networks.connectionsByRelay.get(relay);
+            if(pairs != null){
+                if(newNetwork == null){
+                    newNetwork = new Network();
+                    networks.laserRelayNetworks.add(newNetwork);
+                }
+
+                for(IConnectionPair pair : pairs){
+                    if(oldNetwork.connections.remove(pair)){
+                        newNetwork.connections.add(pair);
+                    }
+                }
+                networks.networksByRelay.put(relay, newNetwork);
+            }
+        }
+
+        if(newNetwork != null){
+            newNetwork.changeAmount++;
+            oldNetwork.changeAmount++;
+        }
+    }
+
+    /**
+     * Adds a new connection to a network and indexes it
+     */
+    private static void addPairToNetwork(Network network, IConnectionPair pair, DimensionData networks){
+        network.connections.add(pair);
+        networks.indexConnection(network, pair);
+        network.changeAmount++;
     }
 
     /**
@@ -70,11 +203,10 @@ public final class LaserRelayConnectionHandler implements ILaserRelayConnectionH
     @Override
     public ConcurrentSet<IConnectionPair> getConnectionsFor(BlockPos relay, World world){
         ConcurrentSet<IConnectionPair> allPairs = new ConcurrentSet<IConnectionPair>();
-        for(Network aNetwork : WorldData.get(world).laserRelayNetworks){
-            for(IConnectionPair pair : aNetwork.connections){
-                if(pair.contains(relay)){
-                    allPairs.add(pair);
-                }
+        if(world != null && relay != null){
+            ConcurrentSet<IConnectionPair> pairs = WorldData.get(world).getDimensionData(world).connectionsByRelay.get(relay);
+            if(pairs != null){
+                allPairs.addAll(pairs);
             }
         }
         return allPairs;
@@ -89,15 +221,16 @@ public final class LaserRelayConnectionHandler implements ILaserRelayConnectionH
         if(network != null){
             network.changeAmount++;
 
-            //Setup new network (so that splitting a network will cause it to break into two)
+            //Remove every connection one by one (so that splitting a network will cause it to break into multiple)
             WorldData data = WorldData.get(world);
-            data.laserRelayNetworks.remove(network);
-            data.markDirty();
-            for(IConnectionPair pair : network.connections){
-                if(!pair.contains(relay)){
-                    this.addConnection(pair.getPositions()[0], pair.getPositions()[1], pair.getType(), world, pair.doesSuppressRender());
+            DimensionData networks = data.getDimensionData(world);
+            ConcurrentSet<IConnectionPair> pairs = networks.connectionsByRelay.get(relay);
+            if(pairs != null){
+                for(IConnectionPair pair : pairs){
+                    removePairFromNetwork(pair, networks);
                 }
             }
+            data.markDirty();
             //System.out.println("Removing a Relay from the Network!");
         }
     }
@@ -107,13 +240,8 @@ public final class LaserRelayConnectionHandler implements ILaserRelayConnectionH
      */
     @Override
     public Network getNetworkFor(BlockPos relay, World world){
-    	if(world != null)
-        for(Network aNetwork : WorldData.get(world).laserRelayNetworks){
-            for(IConnectionPair pair : aNetwork.connections){
-                if(pair.contains(relay)){
-                    return aNetwork;
-                }
-            }
+        if(world != null && relay != null){
+            return WorldData.get(world).getDimensionData(world).networksByRelay.get(relay);
         }
         return null;
     }
@@ -138,6 +266,7 @@ public final class LaserRelayConnectionHandler implements ILaserRelayConnectionH
             return false;
         }
         WorldData data = WorldData.get(world);
+        DimensionData networks = data.getDimensionData(world);
 
         Network firstNetwork = this.getNetworkFor(firstRelay, world);
         Network secondNetwork = this.getNetworkFor(secondRelay, world);
@@ -145,9 +274,8 @@ public final class LaserRelayConnectionHandler implements ILaserRelayConnectionH
         //No Network exists
         if(firstNetwork == null && secondNetwork == null){
             firstNetwork = new Network();
-            data.laserRelayNetworks.add(firstNetwork);
-            firstNetwork.connections.add(new ConnectionPair(firstRelay, secondRelay, type, suppressConnectionRender));
-            firstNetwork.changeAmount++;
+            networks.laserRelayNetworks.add(firstNetwork);
+            addPairToNetwork(firstNetwork, new ConnectionPair(firstRelay, secondRelay, type, suppressConnectionRender), networks);
         }
         //The same Network
         else if(firstNetwork == secondNetwork){
@@ -161,19 +289,16 @@ public final class LaserRelayConnectionHandler implements ILaserRelayConnectionH
         }
         //Both relays have laserRelayNetworks
         else if(firstNetwork != null && secondNetwork != null){
-            mergeNetworks(firstNetwork, secondNetwork, world);
-            firstNetwork.connections.add(new ConnectionPair(firstRelay, secondRelay, type, suppressConnectionRender));
-            firstNetwork.changeAmount++;
+            firstNetwork = mergeNetworks(firstNetwork, secondNetwork, world);
+            addPairToNetwork(firstNetwork, new ConnectionPair(firstRelay, secondRelay, type, suppressConnectionRender), networks);
         }
         //Only first network exists
         else if(firstNetwork != null){
-            firstNetwork.connections.add(new ConnectionPair(firstRelay, secondRelay, type, suppressConnectionRender));
-            firstNetwork.changeAmount++;
+            addPairToNetwork(firstNetwork, new ConnectionPair(firstRelay, secondRelay, type, suppressConnectionRender), networks);
         }
         //Only second network exists
         else{
-            secondNetwork.connections.add(new ConnectionPair(firstRelay, secondRelay, type, suppressConnectionRender));
-            secondNetwork.changeAmount++;
+            addPairToNetwork(secondNetwork, new ConnectionPair(firstRelay, secondRelay, type, suppressConnectionRender), networks);
         }
         //System.out.println("Connected "+firstRelay.toString()+" to "+secondRelay.toString());
         //System.out.println(firstNetwork == null ? secondNetwork.toString() : firstNetwork.toString());
@@ -191,14 +316,16 @@ public final class LaserRelayConnectionHandler implements ILaserRelayConnectionH
                 network.changeAmount++;
 
                 WorldData data = WorldData.get(world);
-                data.laserRelayNetworks.remove(network);
-                data.markDirty();
-
-                for(IConnectionPair pair : network.connections){
-                    if(!pair.contains(firstRelay) || !pair.contains(secondRelay)){
-                        this.addConnection(pair.getPositions()[0], pair.getPositions()[1], pair.getType(), world, pair.doesSuppressRender());
+                DimensionData networks = data.getDimensionData(world);
+                ConcurrentSet<IConnectionPair> pairs = networks.connectionsByRelay.get(firstRelay);
+                if(pairs != null){
+                    for(IConnectionPair pair : pairs){
+                        if(pair.contains(secondRelay)){
+                            removePairFromNetwork(pair, networks);
+                        }
                     }
                 }
+                data.markDirty();
             }
         }
     }
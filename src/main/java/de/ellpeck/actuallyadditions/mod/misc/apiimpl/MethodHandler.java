@@ -168,9 +168,9 @@ public class MethodHandler implements IMethodHandler{
                         BlockPos pos = new BlockPos(hitBlock.getX()+reachX, hitBlock.getY()+reachY, hitBlock.getZ()+reachZ);
                         if(!tile.getWorldObject().isAirBlock(pos)){
                             IBlockState state = tile.getWorldObject().getBlockState(pos);
-                            List<LensConversionRecipe> recipes = LensRecipeHandler.getRecipesFor(new ItemStack(state.getBlock(), 1, state.getBlock().getMetaFromState(state)));
+                            List<LensConversionRecipe> recipes = LensRecipeHandler.getRecipesFor(tile.getLens(), state);
                             for(LensConversionRecipe recipe : recipes){
-                                if(recipe != null && recipe.type == tile.getLens() && tile.getEnergy() >= recipe.energyUse){
+                                if(tile.getEnergy() >= recipe.energyUse){
                                     ItemStack output = recipe.outputStack;
                                     if(StackUtil.isValid(output)){
                                         tile.getWorldObject().playEvent(2001, pos, Block.getStateId(state));
@@ -201,32 +201,30 @@ public class MethodHandler implements IMethodHandler{
             for(EntityItem item : items){
                 ItemStack stack = item.getItem();
                 if(!item.isDead && StackUtil.isValid(stack)){
-                    List<LensConversionRecipe> recipes = LensRecipeHandler.getRecipesFor(stack);
+                    List<LensConversionRecipe> recipes = LensRecipeHandler.getRecipesFor(tile.getLens(), stack.getItem(), stack.getItemDamage());
                     for(LensConversionRecipe recipe : recipes){
-                        if(recipe != null && recipe.type == tile.getLens()){
-                            int itemsPossible = Math.min(tile.getEnergy()/recipe.energyUse, StackUtil.getStackSize(stack));
+                        int itemsPossible = Math.min(tile.getEnergy()/recipe.energyUse, StackUtil.getStackSize(stack));
 
-                            if(itemsPossible > 0){
-                            	recipe.transformHook(item.getItem(), null, item.getPosition(), tile);
-                                item.setDead();
+                        if(itemsPossible > 0){
+                        	recipe.transformHook(item.getItem(), null, item.getPosition(), tile);
+                            item.setDead();
 
-                                if(StackUtil.getStackSize(stack)-itemsPossible > 0){
-                                    ItemStack stackCopy = stack.copy();
-                                    stackCopy = StackUtil.addStackSize(stackCopy, -itemsPossible);
+                            if(StackUtil.getStackSize(stack)-itemsPossible > 0){
+                                ItemStack stackCopy = stack.copy();
+                                stackCopy = StackUtil.addStackSize(stackCopy, -itemsPossible);
 
-                                    EntityItem inputLeft = new EntityItem(tile.getWorldObject(), item.posX, item.posY, item.posZ, stackCopy);
-                                    tile.getWorldObject().spawnEntity(inputLeft);
-                                }
+                                EntityItem inputLeft = new EntityItem(tile.getWorldObject(), item.posX, item.posY, item.posZ, stackCopy);
+                                tile.getWorldObject().spawnEntity(inputLeft);
+                            }
 
-                                ItemStack outputCopy = recipe.outputStack.copy();
-                                outputCopy = StackUtil.setStackSize(outputCopy, itemsPossible);
+                            ItemStack outputCopy = recipe.outputStack.copy();
+                            outputCopy = StackUtil.setStackSize(outputCopy, itemsPossible);
 
-                                EntityItem newItem = new EntityItem(tile.getWorldObject(), item.posX, item.posY, item.posZ, outputCopy);
-                                tile.getWorldObject().spawnEntity(newItem);
+                            EntityItem newItem = new EntityItem(tile.getWorldObject(), item.posX, item.posY, item.posZ, outputCopy);
+                            tile.getWorldObject().spawnEntity(newItem);
 
-                                tile.extractEnergy(recipe.energyUse*itemsPossible);
-                                break;
-                            }
+                            tile.extractEnergy(recipe.energyUse*itemsPossible);
+                            break;
                         }
                     }
                 }
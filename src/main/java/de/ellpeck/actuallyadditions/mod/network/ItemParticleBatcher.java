@@ -0,0 +1,149 @@
+/*
+ * This file ("ItemParticleBatcher.java") is part of the Actually Additions mod for Minecraft.
+ * It is created and owned by Ellpeck and distributed
+ * under the Actually Additions License to be found at
+ * http://ellpeck.de/actaddlicense
+ * View the source code at https://github.com/Ellpeck/ActuallyAdditions
+ *
+ * © 2015-2017 Ellpeck
+ */
+
+package de.ellpeck.actuallyadditions.mod.network;
+
+import de.ellpeck.actuallyadditions.mod.config.values.ConfigIntValues;
+import net.minecraft.entity.player.EntityPlayer;
+import net.minecraft.entity.player.EntityPlayerMP;
+import net.minecraft.item.Item;
+import net.minecraft.item.ItemStack;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.world.World;
+import net.minecraftforge.fml.common.eventhandler.SubscribeEvent;
+import net.minecraftforge.fml.common.gameevent.TickEvent.Phase;
+import net.minecraftforge.fml.common.gameevent.TickEvent.ServerTickEvent;
+
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Collects the item particles of laser item transfers during a tick
+ * and sends them to every player in range as one packet at the end of it
+ */
+public class ItemParticleBatcher{
+
+    private static final int RANGE_SQ = 16*16;
+    private static final int INTS_PER_PARTICLE = PacketLaserItemParticles.INTS_PER_PARTICLE;
+
+    private static final Map<World, Set<ItemParticle>> PARTICLES = new HashMap<World, Set<ItemParticle>>();
+    private static final Map<EntityPlayer, Integer> PARTICLES_SENT = new HashMap<EntityPlayer, Integer>();
+    private static int ticksElapsed;
+
+    public static void addParticle(World world, ItemStack stack, BlockPos input, BlockPos output){
+        if(ConfigIntValues.LASER_ITEM_PARTICLES_PER_SECOND.getValue() > 0){
+            Set<ItemParticle> particles = PARTICLES.get(world);
+            if(particles == null){
+                particles = new LinkedHashSet<ItemParticle>();
+                PARTICLES.put(world, particles);
+            }
+            //Transfers of the same item between the same relays in the same tick only show one particle
+            particles.add(new ItemParticle(input, output, stack.getItem(), stack.getItemDamage()));
+        }
+    }
+
+    @SubscribeEvent
+    public void onServerTick(ServerTickEvent event){
+        if(event.phase == Phase.END){
+            ticksElapsed++;
+            if(ticksElapsed%20 == 0){
+                PARTICLES_SENT.clear();
+            }
+
+            if(!PARTICLES.isEmpty()){
+                int maxPerSecond = ConfigIntValues.LASER_ITEM_PARTICLES_PER_SECOND.getValue();
+                for(Map.Entry<World, Set<ItemParticle>> entry : PARTICLES.entrySet()){
+                    for(EntityPlayer player : entry.getKey().playerEntities){
+                        if(player instanceof EntityPlayerMP){
+                            sendParticles((EntityPlayerMP)player, entry.getValue(), maxPerSecond);
+                        }
+                    }
+                }
+                PARTICLES.clear();
+            }
+        }
+    }
+
+    private static void sendParticles(EntityPlayerMP player, Set<ItemParticle> particles, int maxPerSecond){
+        Integer alreadySent = PARTICLES_SENT.get(player);
+        int sent = alreadySent == null ? 0 : alreadySent;
+
+        int amount = 0;
+        int[] data = null;
+        for(ItemParticle particle : particles){
+            if(sent+amount >= maxPerSecond){
+                break;
+            }
+
+            if(player.getDistanceSq(particle.input) <= RANGE_SQ || player.getDistanceSq(particle.output) <= RANGE_SQ){
+                if(data == null){
+                    data = new int[Math.min(particles.size(), maxPerSecond-sent)*INTS_PER_PARTICLE];
+                }
+
+                int index = amount*INTS_PER_PARTICLE;
+                data[index] = particle.input.getX();
+                data[index+1] = particle.input.getY();
+                data[index+2] = particle.input.getZ();
+                data[index+3] = particle.output.getX();
+                data[index+4] = particle.output.getY();
+                data[index+5] = particle.output.getZ();
+                data[index+6] = Item.getIdFromItem(particle.item);
+                data[index+7] = particle.meta;
+                amount++;
+            }
+        }
+
+        if(amount > 0){
+            int[] particleData = data;
+            if(amount*INTS_PER_PARTICLE != data.length){
+                particleData = new int[amount*INTS_PER_PARTICLE];
+                System.arraycopy(data, 0, particleData, 0, particleData.length);
+            }
+
+            PacketHandler.theNetwork.sendTo(new PacketLaserItemParticles(particleData), player);
+
+            PARTICLES_SENT.put(player, sent+amount);
+        }
+    }
+
+    private static class ItemParticle{
+
+        public final BlockPos input;
+        public final BlockPos output;
+        public final Item item;
+        public final int meta;
+
+        public ItemParticle(BlockPos input, BlockPos output, Item item, int meta){
+            this.input = input;
+            this.output = output;
+            this.item = item;
+            this.meta = meta;
+        }
+
+        @Override
+        public boolean equals(Object obj){
+            if(obj instanceof ItemParticle){
+                ItemParticle particle = (ItemParticle)obj;
+                return this.item == particle.item && this.meta == particle.meta && this.input.equals(particle.input) && this.output.equals(particle.output);
+            }
+            return false;
+        }
+
+        @Override
+        public int hashCode(){
+            int hash = this.input.hashCode();
+            hash = 31*hash+this.output.hashCode();
+            hash = 31*hash+this.item.hashCode();
+            return 31*hash+this.meta;
+        }
+    }
+}
@@ -39,10 +39,7 @@ public class PacketClientToServer implements IMessage{
         try{
             this.data = buffer.readCompoundTag();
 
-            int handlerId = buffer.readInt();
-            if(handlerId >= 0 && handlerId < PacketHandler.DATA_HANDLERS.size()){
-                this.handler = PacketHandler.DATA_HANDLERS.get(handlerId);
-            }
+            this.handler = PacketHandler.getDataHandler(buffer.readVarInt());
         }
         catch(Exception e){
             ModUtil.LOGGER.error("Something went wrong trying to receive a server packet!", e);
@@ -54,7 +51,7 @@ public class PacketClientToServer implements IMessage{
         PacketBuffer buffer = new PacketBuffer(buf);
 
         buffer.writeCompoundTag(this.data);
-        buffer.writeInt(PacketHandler.DATA_HANDLERS.indexOf(this.handler));
+        buffer.writeVarInt(PacketHandler.getDataHandlerId(this.handler));
     }
 
     public static class Handler implements IMessageHandler<PacketClientToServer, IMessage>{
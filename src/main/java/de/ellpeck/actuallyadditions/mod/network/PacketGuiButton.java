@@ -0,0 +1,88 @@
+/*
+ * This file ("PacketGuiButton.java") is part of the Actually Additions mod for Minecraft.
+ * It is created and owned by Ellpeck and distributed
+ * under the Actually Additions License to be found at
+ * http://ellpeck.de/actaddlicense
+ * View the source code at https://github.com/Ellpeck/ActuallyAdditions
+ *
+ * © 2015-2017 Ellpeck
+ */
+
+package de.ellpeck.actuallyadditions.mod.network;
+
+import de.ellpeck.actuallyadditions.mod.network.gui.IButtonReactor;
+import io.netty.buffer.ByteBuf;
+import net.minecraft.entity.player.EntityPlayerMP;
+import net.minecraft.inventory.Container;
+import net.minecraft.tileentity.TileEntity;
+import net.minecraft.util.math.BlockPos;
+import net.minecraftforge.fml.common.network.ByteBufUtils;
+import net.minecraftforge.fml.common.network.simpleimpl.IMessage;
+import net.minecraftforge.fml.common.network.simpleimpl.IMessageHandler;
+import net.minecraftforge.fml.common.network.simpleimpl.MessageContext;
+
+/**
+ * A button press in a GUI, sent to either a tile or the player's open container
+ */
+public class PacketGuiButton implements IMessage{
+
+    private BlockPos pos;
+    private int buttonId;
+
+    public PacketGuiButton(){
+
+    }
+
+    /**
+     * @param pos The position of the tile to send the button press to, or null to send it to the open container
+     */
+    public PacketGuiButton(BlockPos pos, int buttonId){
+        this.pos = pos;
+        this.buttonId = buttonId;
+    }
+
+    @Override
+    public void fromBytes(ByteBuf buf){
+        if(buf.readBoolean()){
+            this.pos = BlockPos.fromLong(buf.readLong());
+        }
+        this.buttonId = ByteBufUtils.readVarInt(buf, 5);
+    }
+
+    @Override
+    public void toBytes(ByteBuf buf){
+        buf.writeBoolean(this.pos != null);
+        if(this.pos != null){
+            buf.writeLong(this.pos.toLong());
+        }
+        ByteBufUtils.writeVarInt(buf, this.buttonId, 5);
+    }
+
+    public static class Handler implements IMessageHandler<PacketGuiButton, IMessage>{
+
+        @Override
+        public IMessage onMessage(final PacketGuiButton message, MessageContext ctx){
+            final EntityPlayerMP player = ctx.getServerHandler().player;
+            player.getServerWorld().addScheduledTask(new Runnable(){
+                @Override
+                public void run(){
+                    if(message.pos != null){
+                        if(player.world.isBlockLoaded(message.pos)){
+                            TileEntity tile = player.world.getTileEntity(message.pos);
+                            if(tile instanceof IButtonReactor){
+                                ((IButtonReactor)tile).onButtonPressed(message.buttonId, player);
+                            }
+                        }
+                    }
+                    else{
+                        Container container = player.openContainer;
+                        if(container instanceof IButtonReactor){
+                            ((IButtonReactor)container).onButtonPressed(message.buttonId, player);
+                        }
+                    }
+                }
+            });
+            return null;
+        }
+    }
+}
@@ -13,19 +13,10 @@ package de.ellpeck.actuallyadditions.mod.network;
 import de.ellpeck.actuallyadditions.mod.ActuallyAdditions;
 import de.ellpeck.actuallyadditions.mod.data.PlayerData;
 import de.ellpeck.actuallyadditions.mod.data.WorldData;
-import de.ellpeck.actuallyadditions.mod.network.gui.IButtonReactor;
 import de.ellpeck.actuallyadditions.mod.network.gui.INumberReactor;
 import de.ellpeck.actuallyadditions.mod.network.gui.IStringReactor;
-import de.ellpeck.actuallyadditions.mod.particle.ParticleLaserItem;
-import de.ellpeck.actuallyadditions.mod.tile.TileEntityBase;
-import de.ellpeck.actuallyadditions.mod.util.AssetUtil;
 import de.ellpeck.actuallyadditions.mod.util.ModUtil;
-import net.minecraft.client.Minecraft;
-import net.minecraft.client.particle.Particle;
-import net.minecraft.entity.Entity;
 import net.minecraft.entity.player.EntityPlayer;
-import net.minecraft.inventory.Container;
-import net.minecraft.item.ItemStack;
 import net.minecraft.nbt.NBTTagCompound;
 import net.minecraft.tileentity.TileEntity;
 import net.minecraft.util.math.BlockPos;
@@ -38,78 +29,15 @@ import net.minecraftforge.fml.relauncher.Side;
 import net.minecraftforge.fml.relauncher.SideOnly;
 
 import java.util.ArrayList;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 
 public final class PacketHandler{
 
     public static final List<IDataHandler> DATA_HANDLERS = new ArrayList<IDataHandler>();
-    public static final IDataHandler LASER_HANDLER = new IDataHandler(){
-        @Override
-        @SideOnly(Side.CLIENT)
-        public void handleData(NBTTagCompound compound, MessageContext context){
-            AssetUtil.spawnLaserWithTimeClient(compound.getDouble("StartX"), compound.getDouble("StartY"), compound.getDouble("StartZ"), compound.getDouble("EndX"), compound.getDouble("EndY"), compound.getDouble("EndZ"), new float[]{compound.getFloat("Color1"), compound.getFloat("Color2"), compound.getFloat("Color3")}, compound.getInteger("MaxAge"), compound.getDouble("RotationTime"), compound.getFloat("Size"), compound.getFloat("Alpha"));
-        }
-    };
-    public static final IDataHandler TILE_ENTITY_HANDLER = new IDataHandler(){
-        @Override
-        @SideOnly(Side.CLIENT)
-        public void handleData(NBTTagCompound compound, MessageContext context){
-            World world = Minecraft.getMinecraft().world;
-            if(world != null){
-                TileEntity tile = world.getTileEntity(new BlockPos(compound.getInteger("X"), compound.getInteger("Y"), compound.getInteger("Z")));
-                if(tile instanceof TileEntityBase){
-                    ((TileEntityBase)tile).readSyncableNBT(compound.getCompoundTag("Data"), TileEntityBase.NBTType.SYNC);
-                }
-            }
-        }
-    };
-    public static final IDataHandler LASER_PARTICLE_HANDLER = new IDataHandler(){
-        @Override
-        @SideOnly(Side.CLIENT)
-        public void handleData(NBTTagCompound compound, MessageContext context){
-            Minecraft mc = Minecraft.getMinecraft();
-            ItemStack stack = new ItemStack(compound);
-
-            double inX = compound.getDouble("InX")+0.5;
-            double inY = compound.getDouble("InY")+0.78;
-            double inZ = compound.getDouble("InZ")+0.5;
-
-            double outX = compound.getDouble("OutX")+0.5;
-            double outY = compound.getDouble("OutY")+0.525;
-            double outZ = compound.getDouble("OutZ")+0.5;
-
-            Particle fx = new ParticleLaserItem(mc.world, outX, outY, outZ, stack, 0.025, inX, inY, inZ);
-            mc.effectRenderer.addEffect(fx);
-        }
-    };
-    public static final IDataHandler GUI_BUTTON_TO_TILE_HANDLER = new IDataHandler(){
-        @Override
-        public void handleData(NBTTagCompound compound, MessageContext context){
-            World world = DimensionManager.getWorld(compound.getInteger("WorldID"));
-            TileEntity tile = world.getTileEntity(new BlockPos(compound.getInteger("X"), compound.getInteger("Y"), compound.getInteger("Z")));
+    private static final Map<IDataHandler, Integer> DATA_HANDLER_IDS = new IdentityHashMap<IDataHandler, Integer>();
 
-            if(tile instanceof IButtonReactor){
-                IButtonReactor reactor = (IButtonReactor)tile;
-                Entity entity = world.getEntityByID(compound.getInteger("PlayerID"));
-                if(entity instanceof EntityPlayer){
-                    reactor.onButtonPressed(compound.getInteger("ButtonID"), (EntityPlayer)entity);
-                }
-            }
-        }
-    };
-    public static final IDataHandler GUI_BUTTON_TO_CONTAINER_HANDLER = new IDataHandler(){
-        @Override
-        public void handleData(NBTTagCompound compound, MessageContext context){
-            World world = DimensionManager.getWorld(compound.getInteger("WorldID"));
-            Entity entity = world.getEntityByID(compound.getInteger("PlayerID"));
-            if(entity instanceof EntityPlayer){
-                Container container = ((EntityPlayer)entity).openContainer;
-                if(container instanceof IButtonReactor){
-                    ((IButtonReactor)container).onButtonPressed(compound.getInteger("ButtonID"), (EntityPlayer)entity);
-                }
-            }
-        }
-    };
     public static final IDataHandler GUI_NUMBER_TO_TILE_HANDLER = new IDataHandler(){
         @Override
         public void handleData(NBTTagCompound compound, MessageContext context){
@@ -194,14 +122,29 @@ public final class PacketHandler{
         theNetwork.registerMessage(PacketServerToClient.Handler.class, PacketServerToClient.class, 0, Side.CLIENT);
         theNetwork.registerMessage(PacketClientToServer.Handler.class, PacketClientToServer.class, 1, Side.SERVER);
 
-        DATA_HANDLERS.add(LASER_HANDLER);
-        DATA_HANDLERS.add(TILE_ENTITY_HANDLER);
-        DATA_HANDLERS.add(GUI_BUTTON_TO_TILE_HANDLER);
-        DATA_HANDLERS.add(GUI_STRING_TO_TILE_HANDLER);
-        DATA_HANDLERS.add(GUI_NUMBER_TO_TILE_HANDLER);
-        DATA_HANDLERS.add(SYNC_PLAYER_DATA);
-        DATA_HANDLERS.add(GUI_BUTTON_TO_CONTAINER_HANDLER);
-        DATA_HANDLERS.add(LASER_PARTICLE_HANDLER);
-        DATA_HANDLERS.add(PLAYER_DATA_TO_SERVER);
+        //Frequently sent data gets its own message so that it can be written straight to the buffer
+        theNetwork.registerMessage(PacketTileEntitySync.Handler.class, PacketTileEntitySync.class, 2, Side.CLIENT);
+        theNetwork.registerMessage(PacketLaser.Handler.class, PacketLaser.class, 3, Side.CLIENT);
+        theNetwork.registerMessage(PacketLaserItemParticles.Handler.class, PacketLaserItemParticles.class, 4, Side.CLIENT);
+        theNetwork.registerMessage(PacketGuiButton.Handler.class, PacketGuiButton.class, 5, Side.SERVER);
+
+        registerDataHandler(GUI_STRING_TO_TILE_HANDLER);
+        registerDataHandler(GUI_NUMBER_TO_TILE_HANDLER);
+        registerDataHandler(SYNC_PLAYER_DATA);
+        registerDataHandler(PLAYER_DATA_TO_SERVER);
+    }
+
+    private static void registerDataHandler(IDataHandler handler){
+        DATA_HANDLER_IDS.put(handler, DATA_HANDLERS.size());
+        DATA_HANDLERS.add(handler);
+    }
+
+    public static int getDataHandlerId(IDataHandler handler){
+        Integer id = DATA_HANDLER_IDS.get(handler);
+        return id == null ? -1 : id;
+    }
+
+    public static IDataHandler getDataHandler(int id){
+        return id >= 0 && id < DATA_HANDLERS.size() ? DATA_HANDLERS.get(id) : null;
     }
 }
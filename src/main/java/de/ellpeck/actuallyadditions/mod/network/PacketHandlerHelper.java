@@ -20,7 +20,6 @@ import net.minecraft.entity.player.EntityPlayer;
 import net.minecraft.entity.player.EntityPlayerMP;
 import net.minecraft.nbt.NBTTagCompound;
 import net.minecraft.tileentity.TileEntity;
-import net.minecraft.util.math.BlockPos;
 import net.minecraftforge.fml.relauncher.Side;
 import net.minecraftforge.fml.relauncher.SideOnly;
 
@@ -28,15 +27,7 @@ public final class PacketHandlerHelper{
 
     @SideOnly(Side.CLIENT)
     public static void sendButtonPacket(TileEntity tile, int buttonId){
-        NBTTagCompound compound = new NBTTagCompound();
-        BlockPos pos = tile.getPos();
-        compound.setInteger("X", pos.getX());
-        compound.setInteger("Y", pos.getY());
-        compound.setInteger("Z", pos.getZ());
-        compound.setInteger("WorldID", tile.getWorld().provider.getDimension());
-        compound.setInteger("PlayerID", Minecraft.getMinecraft().player.getEntityId());
-        compound.setInteger("ButtonID", buttonId);
-        PacketHandler.theNetwork.sendToServer(new PacketClientToServer(compound, PacketHandler.GUI_BUTTON_TO_TILE_HANDLER));
+        PacketHandler.theNetwork.sendToServer(new PacketGuiButton(tile.getPos(), buttonId));
     }
 
     public static void syncPlayerData(EntityPlayer player, boolean log){
@@ -0,0 +1,103 @@
+/*
+ * This file ("PacketLaser.java") is part of the Actually Additions mod for Minecraft.
+ * It is created and owned by Ellpeck and distributed
+ * under the Actually Additions License to be found at
+ * http://ellpeck.de/actaddlicense
+ * View the source code at https://github.com/Ellpeck/ActuallyAdditions
+ *
+ * © 2015-2017 Ellpeck
+ */
+
+package de.ellpeck.actuallyadditions.mod.network;
+
+import de.ellpeck.actuallyadditions.mod.util.AssetUtil;
+import io.netty.buffer.ByteBuf;
+import net.minecraft.client.Minecraft;
+import net.minecraftforge.fml.common.network.ByteBufUtils;
+import net.minecraftforge.fml.common.network.simpleimpl.IMessage;
+import net.minecraftforge.fml.common.network.simpleimpl.IMessageHandler;
+import net.minecraftforge.fml.common.network.simpleimpl.MessageContext;
+import net.minecraftforge.fml.relauncher.Side;
+import net.minecraftforge.fml.relauncher.SideOnly;
+
+public class PacketLaser implements IMessage{
+
+    private double startX;
+    private double startY;
+    private double startZ;
+    private double endX;
+    private double endY;
+    private double endZ;
+    private float[] color = new float[3];
+    private int maxAge;
+    private double rotationTime;
+    private float size;
+    private float alpha;
+
+    public PacketLaser(){
+
+    }
+
+    public PacketLaser(double startX, double startY, double startZ, double endX, double endY, double endZ, float[] color, int maxAge, double rotationTime, float size, float alpha){
+        this.startX = startX;
+        this.startY = startY;
+        this.startZ = startZ;
+        this.endX = endX;
+        this.endY = endY;
+        this.endZ = endZ;
+        this.color = color;
+        this.maxAge = maxAge;
+        this.rotationTime = rotationTime;
+        this.size = size;
+        this.alpha = alpha;
+    }
+
+    @Override
+    public void fromBytes(ByteBuf buf){
+        this.startX = buf.readDouble();
+        this.startY = buf.readDouble();
+        this.startZ = buf.readDouble();
+        this.endX = buf.readDouble();
+        this.endY = buf.readDouble();
+        this.endZ = buf.readDouble();
+        for(int i = 0; i < this.color.length; i++){
+            this.color[i] = buf.readFloat();
+        }
+        this.maxAge = ByteBufUtils.readVarInt(buf, 5);
+        this.rotationTime = buf.readDouble();
+        this.size = buf.readFloat();
+        this.alpha = buf.readFloat();
+    }
+
+    @Override
+    public void toBytes(ByteBuf buf){
+        buf.writeDouble(this.startX);
+        buf.writeDouble(this.startY);
+        buf.writeDouble(this.startZ);
+        buf.writeDouble(this.endX);
+        buf.writeDouble(this.endY);
+        buf.writeDouble(this.endZ);
+        for(int i = 0; i < 3; i++){
+            buf.writeFloat(this.color[i]);
+        }
+        ByteBufUtils.writeVarInt(buf, this.maxAge, 5);
+        buf.writeDouble(this.rotationTime);
+        buf.writeFloat(this.size);
+        buf.writeFloat(this.alpha);
+    }
+
+    public static class Handler implements IMessageHandler<PacketLaser, IMessage>{
+
+        @Override
+        @SideOnly(Side.CLIENT)
+        public IMessage onMessage(final PacketLaser message, MessageContext ctx){
+            Minecraft.getMinecraft().addScheduledTask(new Runnable(){
+                @Override
+                public void run(){
+                    AssetUtil.spawnLaserWithTimeClient(message.startX, message.startY, message.startZ, message.endX, message.endY, message.endZ, message.color, message.maxAge, message.rotationTime, message.size, message.alpha);
+                }
+            });
+            return null;
+        }
+    }
+}
@@ -0,0 +1,108 @@
+/*
+ * This file ("PacketLaserItemParticles.java") is part of the Actually Additions mod for Minecraft.
+ * It is created and owned by Ellpeck and distributed
+ * under the Actually Additions License to be found at
+ * http://ellpeck.de/actaddlicense
+ * View the source code at https://github.com/Ellpeck/ActuallyAdditions
+ *
+ * © 2015-2017 Ellpeck
+ */
+
+package de.ellpeck.actuallyadditions.mod.network;
+
+import de.ellpeck.actuallyadditions.mod.particle.ParticleLaserItem;
+import io.netty.buffer.ByteBuf;
+import net.minecraft.client.Minecraft;
+import net.minecraft.client.particle.Particle;
+import net.minecraft.item.Item;
+import net.minecraft.item.ItemStack;
+import net.minecraft.util.math.BlockPos;
+import net.minecraftforge.fml.common.network.ByteBufUtils;
+import net.minecraftforge.fml.common.network.simpleimpl.IMessage;
+import net.minecraftforge.fml.common.network.simpleimpl.IMessageHandler;
+import net.minecraftforge.fml.common.network.simpleimpl.MessageContext;
+import net.minecraftforge.fml.relauncher.Side;
+import net.minecraftforge.fml.relauncher.SideOnly;
+
+public class PacketLaserItemParticles implements IMessage{
+
+    public static final int INTS_PER_PARTICLE = 8;
+
+    //Every particle is made up of the input and output positions followed by the item id and meta
+    private int[] particles;
+
+    public PacketLaserItemParticles(){
+
+    }
+
+    public PacketLaserItemParticles(int[] particles){
+        this.particles = particles;
+    }
+
+    @Override
+    public void fromBytes(ByteBuf buf){
+        int amount = ByteBufUtils.readVarInt(buf, 5);
+        this.particles = new int[amount*INTS_PER_PARTICLE];
+        for(int i = 0; i < amount; i++){
+            int index = i*INTS_PER_PARTICLE;
+            BlockPos input = BlockPos.fromLong(buf.readLong());
+            BlockPos output = BlockPos.fromLong(buf.readLong());
+            this.particles[index] = input.getX();
+            this.particles[index+1] = input.getY();
+            this.particles[index+2] = input.getZ();
+            this.particles[index+3] = output.getX();
+            this.particles[index+4] = output.getY();
+            this.particles[index+5] = output.getZ();
+            this.particles[index+6] = ByteBufUtils.readVarInt(buf, 5);
+            this.particles[index+7] = ByteBufUtils.readVarInt(buf, 5);
+        }
+    }
+
+    @Override
+    public void toBytes(ByteBuf buf){
+        int amount = this.particles.length/INTS_PER_PARTICLE;
+        ByteBufUtils.writeVarInt(buf, amount, 5);
+        for(int i = 0; i < amount; i++){
+            int index = i*INTS_PER_PARTICLE;
+            buf.writeLong(new BlockPos(this.particles[index], this.particles[index+1], this.particles[index+2]).toLong());
+            buf.writeLong(new BlockPos(this.particles[index+3], this.particles[index+4], this.particles[index+5]).toLong());
+            ByteBufUtils.writeVarInt(buf, this.particles[index+6], 5);
+            ByteBufUtils.writeVarInt(buf, this.particles[index+7], 5);
+        }
+    }
+
+    public static class Handler implements IMessageHandler<PacketLaserItemParticles, IMessage>{
+
+        @Override
+        @SideOnly(Side.CLIENT)
+        public IMessage onMessage(final PacketLaserItemParticles message, MessageContext ctx){
+            Minecraft.getMinecraft().addScheduledTask(new Runnable(){
+                @Override
+                public void run(){
+                    Minecraft mc = Minecraft.getMinecraft();
+                    if(mc.world != null){
+                        int[] particles = message.particles;
+                        for(int i = 0; i+INTS_PER_PARTICLE-1 < particles.length; i += INTS_PER_PARTICLE){
+                            Item item = Item.getItemById(particles[i+6]);
+                            if(item != null){
+                                ItemStack stack = new ItemStack(item, 1, particles[i+7]);
+
+                                double inX = particles[i]+0.5;
+                                double inY = particles[i+1]+0.78;
+                                double inZ = particles[i+2]+0.5;
+
+                                double outX = particles[i+3]+0.5;
+                                double outY = particles[i+4]+0.525;
+                                double outZ = particles[i+5]+0.5;
+
+                                Particle fx = new ParticleLaserItem(mc.world, outX, outY, outZ, stack, 0.025, inX, inY, inZ);
+                                mc.effectRenderer.addEffect(fx);
+                            }
+                        }
+                    }
+                }
+            });
+            return null;
+        }
+    }
+}
@@ -41,10 +41,7 @@ public class PacketServerToClient implements IMessage{
         try{
             this.data = buffer.readCompoundTag();
 
-            int handlerId = buffer.readInt();
-            if(handlerId >= 0 && handlerId < PacketHandler.DATA_HANDLERS.size()){
-                this.handler = PacketHandler.DATA_HANDLERS.get(handlerId);
-            }
+            this.handler = PacketHandler.getDataHandler(buffer.readVarInt());
         }
         catch(Exception e){
             ModUtil.LOGGER.error("Something went wrong trying to receive a client packet!", e);
@@ -56,7 +53,7 @@ public class PacketServerToClient implements IMessage{
         PacketBuffer buffer = new PacketBuffer(buf);
 
         buffer.writeCompoundTag(this.data);
-        buffer.writeInt(PacketHandler.DATA_HANDLERS.indexOf(this.handler));
+        buffer.writeVarInt(PacketHandler.getDataHandlerId(this.handler));
     }
 
     public static class Handler implements IMessageHandler<PacketServerToClient, IMessage>{
@@ -0,0 +1,73 @@
+/*
+ * This file ("PacketTileEntitySync.java") is part of the Actually Additions mod for Minecraft.
+ * It is created and owned by Ellpeck and distributed
+ * under the Actually Additions License to be found at
+ * http://ellpeck.de/actaddlicense
+ * View the source code at https://github.com/Ellpeck/ActuallyAdditions
+ *
+ * © 2015-2017 Ellpeck
+ */
+
+package de.ellpeck.actuallyadditions.mod.network;
+
+import de.ellpeck.actuallyadditions.mod.tile.TileEntityBase;
+import io.netty.buffer.ByteBuf;
+import net.minecraft.client.Minecraft;
+import net.minecraft.nbt.NBTTagCompound;
+import net.minecraft.tileentity.TileEntity;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.world.World;
+import net.minecraftforge.fml.common.network.ByteBufUtils;
+import net.minecraftforge.fml.common.network.simpleimpl.IMessage;
+import net.minecraftforge.fml.common.network.simpleimpl.IMessageHandler;
+import net.minecraftforge.fml.common.network.simpleimpl.MessageContext;
+import net.minecraftforge.fml.relauncher.Side;
+import net.minecraftforge.fml.relauncher.SideOnly;
+
+public class PacketTileEntitySync implements IMessage{
+
+    private BlockPos pos;
+    private NBTTagCompound data;
+
+    public PacketTileEntitySync(){
+
+    }
+
+    public PacketTileEntitySync(BlockPos pos, NBTTagCompound data){
+        this.pos = pos;
+        this.data = data;
+    }
+
+    @Override
+    public void fromBytes(ByteBuf buf){
+        this.pos = BlockPos.fromLong(buf.readLong());
+        this.data = ByteBufUtils.readTag(buf);
+    }
+
+    @Override
+    public void toBytes(ByteBuf buf){
+        buf.writeLong(this.pos.toLong());
+        ByteBufUtils.writeTag(buf, this.data);
+    }
+
+    public static class Handler implements IMessageHandler<PacketTileEntitySync, IMessage>{
+
+        @Override
+        @SideOnly(Side.CLIENT)
+        public IMessage onMessage(final PacketTileEntitySync message, MessageContext ctx){
+            Minecraft.getMinecraft().addScheduledTask(new Runnable(){
+                @Override
+                public void run(){
+                    World world = Minecraft.getMinecraft().world;
+                    if(world != null && message.data != null){
+                        TileEntity tile = world.getTileEntity(message.pos);
+                        if(tile instanceof TileEntityBase){
+                            ((TileEntityBase)tile).receiveSyncPacket(message.data);
+                        }
+                    }
+                }
+            });
+            return null;
+        }
+    }
+}
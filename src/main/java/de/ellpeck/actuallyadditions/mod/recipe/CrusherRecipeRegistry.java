@@ -13,7 +13,6 @@ package de.ellpeck.actuallyadditions.mod.recipe;
 import de.ellpeck.actuallyadditions.api.ActuallyAdditionsAPI;
 import de.ellpeck.actuallyadditions.api.recipe.CrusherRecipe;
 import de.ellpeck.actuallyadditions.mod.config.values.ConfigStringListValues;
-import de.ellpeck.actuallyadditions.mod.util.ItemUtil;
 import de.ellpeck.actuallyadditions.mod.util.ModUtil;
 import de.ellpeck.actuallyadditions.mod.util.StackUtil;
 import net.minecraft.item.Item;
@@ -28,6 +27,13 @@ public final class CrusherRecipeRegistry{
 
     public static final ArrayList<SearchCase> SEARCH_CASES = new ArrayList<SearchCase>();
 
+    private static final RecipeInputIndex<CrusherRecipe> RECIPE_INDEX = new RecipeInputIndex<CrusherRecipe>(ActuallyAdditionsAPI.CRUSHER_RECIPES){
+        @Override
+        protected ItemStack getInput(CrusherRecipe recipe){
+            return recipe.inputStack;
+        }
+    };
+
     public static void registerFinally(){
         ArrayList<String> oresNoResult = new ArrayList<String>();
         int recipeStartedAt = ActuallyAdditionsAPI.CRUSHER_RECIPES.size();
@@ -106,14 +112,23 @@ public final class CrusherRecipeRegistry{
     }
 
     public static CrusherRecipe getRecipeFromInput(ItemStack input){
-        for(CrusherRecipe recipe : ActuallyAdditionsAPI.CRUSHER_RECIPES){
-            if(ItemUtil.areItemsEqual(recipe.inputStack, input, true)){
-                return recipe;
+        if(StackUtil.isValid(input)){
+            //The first one is the one a linear search through the list would find
+            List<CrusherRecipe> recipes = RECIPE_INDEX.getRecipes(input.getItem(), input.getItemDamage());
+            if(!recipes.isEmpty()){
+                return recipes.get(0);
             }
         }
         return null;
     }
 
+    /**
+     * Changes every time the recipe index changes, so that recipes cached elsewhere can be invalidated
+     */
+    public static int getRecipeIndexVersion(){
+        return RECIPE_INDEX.getVersion();
+    }
+
     public static ItemStack getOutputTwos(ItemStack input){
         CrusherRecipe recipe = getRecipeFromInput(input);
         return recipe == null ? StackUtil.getEmpty() : recipe.outputTwoStack;
@@ -0,0 +1,218 @@
+/*
+ * This file ("RecipeInputIndex.java") is part of the Actually Additions mod for Minecraft.
+ * It is created and owned by Ellpeck and distributed
+ * under the Actually Additions License to be found at
+ * http://ellpeck.de/actaddlicense
+ * View the source code at https://github.com/Ellpeck/ActuallyAdditions
+ *
+ * © 2015-2017 Ellpeck
+ */
+
+package de.ellpeck.actuallyadditions.mod.recipe;
+
+import de.ellpeck.actuallyadditions.mod.util.StackUtil;
+import de.ellpeck.actuallyadditions.mod.util.Util;
+import net.minecraft.item.Item;
+import net.minecraft.item.ItemStack;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Indexes a recipe list by the item and meta of each recipe's input.
+ * Other mods change the recipe lists directly, so the index watches the list instead of being told about changes.
+ * Additions get appended to the index. Any other change causes a rebuild, either when the list's size or last
+ * recipe changes, or when a recipe that was found isn't in its place in the list anymore.
+ */
+public abstract class RecipeInputIndex<T>{
+
+    private static final Object NO_GROUP = new Object();
+
+    private final List<T> recipes;
+
+    private volatile Map<Object, Map<Item, Entry<T>>> index = new ConcurrentHashMap<Object, Map<Item, Entry<T>>>();
+    private volatile Map<T, Integer> places = new ConcurrentHashMap<T, Integer>();
+    private volatile int indexedAmount = -1;
+    private volatile T lastIndexedRecipe;
+    private volatile int version;
+
+    public RecipeInputIndex(List<T> recipes){
+        this.recipes = recipes;
+    }
+
+    protected abstract ItemStack getInput(T recipe);
+
+    /**
+     * Recipes get split up by this before being indexed by their input, like lens recipes are by their lens.
+     * Recipes with a null group aren't indexed.
+     */
+    protected Object getGroup(T recipe){
+        return NO_GROUP;
+    }
+
+    /**
+     * Returns the recipes whose input has the given item and either the given meta or the wildcard meta,
+     * in the order they were registered in. The returned list is shared and must not be modified.
+     */
+    public List<T> getRecipes(Item item, int meta){
+        return this.getRecipes(NO_GROUP, item, meta);
+    }
+
+    public List<T> getRecipes(Object group, Item item, int meta){
+        this.updateIfChanged();
+
+        List<T> found = this.find(group, item, meta);
+        if(!this.areStillRegistered(found)){
+            found = this.find(group, item, meta);
+        }
+        return found;
+    }
+
+    /**
+     * Checks that recipes which were gotten from this index earlier are still in the list.
+     * If they aren't, the index is rebuilt, which also changes its version.
+     */
+    public boolean areStillRegistered(List<T> found){
+        for(T recipe : found){
+            Integer place = this.places.get(recipe);
+            if(place == null || place >= this.recipes.size() || this.recipes.get(place) != recipe){
+                this.rebuild();
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Gets where a recipe that was gotten from this index is in the list, or -1 if it isn't indexed.
+     * Use areStillRegistered first to make sure that the place is still right.
+     */
+    public int getPlace(T recipe){
+        Integer place = this.places.get(recipe);
+        return place != null ? place : -1;
+    }
+
+    /**
+     * Changes every time the index changes, so that recipes cached elsewhere can be invalidated
+     */
+    public int getVersion(){
+        this.updateIfChanged();
+        return this.version;
+    }
+
+    private List<T> find(Object group, Item item, int meta){
+        Map<Item, Entry<T>> groupIndex = this.index.get(group);
+        if(groupIndex != null){
+            Entry<T> entry = groupIndex.get(item);
+            if(entry != null){
+                return entry.getRecipes(meta);
+            }
+        }
+        return Collections.emptyList();
+    }
+
+    private boolean hasChanged(){
+        int amount = this.recipes.size();
+        return amount != this.indexedAmount || (amount > 0 && this.recipes.get(amount-1) != this.lastIndexedRecipe);
+    }
+
+    private void updateIfChanged(){
+        if(this.hasChanged()){
+            this.update(false);
+        }
+    }
+
+    private void rebuild(){
+        this.update(true);
+    }
+
+    private synchronized void update(boolean force){
+        if(force || this.hasChanged()){
+            int amount = this.recipes.size();
+            int indexed = this.indexedAmount;
+
+            //If everything that was indexed is still where it was, the new recipes can just be appended
+            if(!force && indexed >= 0 && indexed < amount && (indexed == 0 || this.recipes.get(indexed-1) == this.lastIndexedRecipe)){
+                this.addToIndex(this.index, this.places, indexed, amount);
+            }
+            else{
+                Map<Object, Map<Item, Entry<T>>> index = new ConcurrentHashMap<Object, Map<Item, Entry<T>>>();
+                Map<T, Integer> places = new ConcurrentHashMap<T, Integer>();
+                this.addToIndex(index, places, 0, amount);
+                this.index = index;
+                this.places = places;
+            }
+
+            this.lastIndexedRecipe = amount > 0 ? this.recipes.get(amount-1) : null;
+            this.indexedAmount = amount;
+            this.version++;
+        }
+    }
+
+    private void addToIndex(Map<Object, Map<Item, Entry<T>>> index, Map<T, Integer> places, int from, int to){
+        for(int i = from; i < to; i++){
+            T recipe = this.recipes.get(i);
+            if(recipe != null && !places.containsKey(recipe)){
+                places.put(recipe, i);
+
+                Object group = this.getGroup(recipe);
+                ItemStack input = this.getInput(recipe);
+                if(group != null && StackUtil.isValid(input)){
+                    Map<Item, Entry<T>> groupIndex = index.get(group);
+                    if(groupIndex == null){
+                        groupIndex = new ConcurrentHashMap<Item, Entry<T>>();
+                        index.put(group, groupIndex);
+                    }
+
+                    Entry<T> entry = groupIndex.get(input.getItem());
+                    if(entry == null){
+                        entry = new Entry<T>();
+                        groupIndex.put(input.getItem(), entry);
+                    }
+                    entry.add(input.getItemDamage(), recipe);
+                }
+            }
+        }
+    }
+
+    /**
+     * All recipes for one input item, with the recipes that fit every meta already merged into the lists for the specific metas
+     */
+    private static class Entry<T>{
+
+        private final List<T> allRecipes = new CopyOnWriteArrayList<T>();
+        private final List<T> wildcardRecipes = new CopyOnWriteArrayList<T>();
+        private final Map<Integer, List<T>> recipesByMeta = new ConcurrentHashMap<Integer, List<T>>();
+
+        public void add(int meta, T recipe){
+            this.allRecipes.add(recipe);
+
+            if(meta == Util.WILDCARD){
+                this.wildcardRecipes.add(recipe);
+                for(List<T> recipes : this.recipesByMeta.values()){
+                    recipes.add(recipe);
+                }
+            }
+            else{
+                List<T> recipes = this.recipesByMeta.get(meta);
+                if(recipes == null){
+                    recipes = new CopyOnWriteArrayList<T>(this.wildcardRecipes);
+                    this.recipesByMeta.put(meta, recipes);
+                }
+                recipes.add(recipe);
+            }
+        }
+
+        public List<T> getRecipes(int meta){
+            if(meta == Util.WILDCARD){
+                return this.allRecipes;
+            }
+
+            List<T> recipes = this.recipesByMeta.get(meta);
+            return recipes != null ? recipes : this.wildcardRecipes;
+        }
+    }
+}
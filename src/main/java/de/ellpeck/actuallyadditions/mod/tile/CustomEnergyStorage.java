@@ -47,8 +47,9 @@ public class CustomEnergyStorage extends EnergyStorage{
         int energy = this.getEnergyStored();
 
         int energyReceived = Math.min(this.capacity-energy, Math.min(this.maxReceive, maxReceive));
-        if(!simulate){
+        if(!simulate && energyReceived > 0){
             this.setEnergyStored(energy+energyReceived);
+            this.onEnergyReceived();
         }
 
         return energyReceived;
@@ -68,6 +69,13 @@ public class CustomEnergyStorage extends EnergyStorage{
         return energyExtracted;
     }
 
+    /**
+     * Called whenever energy was actually received, so that a sleeping tile can be woken up
+     */
+    protected void onEnergyReceived(){
+
+    }
+
     public void readFromNBT(NBTTagCompound compound){
         this.setEnergyStored(compound.getInteger("Energy"));
     }
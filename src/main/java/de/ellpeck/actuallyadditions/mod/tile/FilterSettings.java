@@ -20,7 +20,13 @@ import net.minecraft.item.ItemStack;
 import net.minecraft.nbt.NBTTagCompound;
 import net.minecraft.util.ResourceLocation;
 import net.minecraftforge.oredict.OreDictionary;
-import org.apache.commons.lang3.ArrayUtils;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
 
 public class FilterSettings{
 
@@ -40,9 +46,17 @@ public class FilterSettings{
     private boolean lastRespectNBT;
     private boolean lastRespectMod;
     private int lastRecpectOredict;
+    //The contents of the filter inventory, including those of filters in it, prepared for fast checking
+    private CompiledFilter compiledFilter;
 
     public FilterSettings(int slots, boolean defaultWhitelist, boolean defaultRespectMeta, boolean defaultRespectNBT, boolean defaultRespectMod, int defaultRespectOredict, int buttonIdStart){
-        this.filterInventory = new ItemStackHandlerCustom(slots);
+        this.filterInventory = new ItemStackHandlerCustom(slots){
+            @Override
+            protected void onContentsChanged(int slot){
+                super.onContentsChanged(slot);
+                FilterSettings.this.markFilterChanged();
+            }
+        };
 
         this.isWhitelist = defaultWhitelist;
         this.respectMeta = defaultRespectMeta;
@@ -58,95 +72,12 @@ public class FilterSettings{
     }
 
     public static boolean check(ItemStack stack, ItemStackHandlerCustom filter, boolean whitelist, boolean meta, boolean nbt, boolean mod, int oredict){
-        if(StackUtil.isValid(stack)){
-            for(int i = 0; i < filter.getSlots(); i++){
-                ItemStack slot = filter.getStackInSlot(i);
-
-                if(StackUtil.isValid(slot)){
-                    if(SlotFilter.isFilter(slot)){
-                        ItemStackHandlerCustom inv = new ItemStackHandlerCustom(ContainerFilter.SLOT_AMOUNT);
-                        ItemDrill.loadSlotsFromNBT(inv, slot);
-                        for(int k = 0; k < inv.getSlots(); k++){
-                            ItemStack filterSlot = inv.getStackInSlot(k);
-                            if(StackUtil.isValid(filterSlot) && areEqualEnough(filterSlot, stack, meta, nbt, mod, oredict)){
-                                return whitelist;
-                            }
-                        }
-                    }
-                    else if(areEqualEnough(slot, stack, meta, nbt, mod, oredict)){
-                        return whitelist;
-                    }
-                }
-            }
+        if(StackUtil.isValid(stack) && new CompiledFilter(filter, meta, nbt, mod, oredict).matches(stack)){
+            return whitelist;
         }
         return !whitelist;
     }
 
-    private static boolean areEqualEnough(ItemStack first, ItemStack second, boolean meta, boolean nbt, boolean mod, int oredict){
-        Item firstItem = first.getItem();
-        Item secondItem = second.getItem();
-        if(mod){
-            ResourceLocation firstReg = firstItem.getRegistryName();
-            ResourceLocation secondReg = secondItem.getRegistryName();
-            if(firstReg != null && secondReg != null){
-                String firstDomain = firstReg.getResourceDomain();
-                String secondDomain = secondReg.getResourceDomain();
-                if(firstDomain != null && secondDomain != null){
-                    if(!firstDomain.equals(secondDomain)){
-                        return false;
-                    }
-                }
-            }
-        }
-        else if(firstItem != secondItem){
-            return false;
-        }
-
-        boolean metaFine = !meta || first.getItemDamage() == second.getItemDamage();
-        boolean nbtFine = !nbt || ItemStack.areItemStackTagsEqual(first, second);
-        if(metaFine && nbtFine){
-            if(oredict == 0){
-                return true;
-            }
-            else{
-                int[] firstIds = OreDictionary.getOreIDs(first);
-                int[] secondIds = OreDictionary.getOreIDs(second);
-                boolean firstEmpty = ArrayUtils.isEmpty(firstIds);
-                boolean secondEmpty = ArrayUtils.isEmpty(secondIds);
-
-                //Both empty, meaning none has OreDict entries, so they are equal
-                if(firstEmpty && secondEmpty){
-                    return true;
-                }
-                //Only one empty, meaning they are not equal
-                else if(firstEmpty || secondEmpty){
-                    return false;
-                }
-                else{
-                    for(int id : firstIds){
-                        if(ArrayUtils.contains(secondIds, id)){
-                            //Needs to match only one id, so return true on first match
-                            if(oredict == 1){
-                                return true;
-                            }
-                        }
-                        //Needs to match every id, so just return false when no match
-                        else if(oredict == 2){
-                            return false;
-                        }
-
-                    }
-                    //If oredict mode 1, this will fail because nothing matched
-                    //If oredict mode 2, this will mean nothing hasn't matched
-                    return oredict == 2;
-                }
-            }
-        }
-        else{
-            return false;
-        }
-    }
-
     public void writeToNBT(NBTTagCompound tag, String name){
         NBTTagCompound compound = new NBTTagCompound();
         compound.setBoolean("Whitelist", this.isWhitelist);
@@ -210,15 +141,225 @@ public class FilterSettings{
     }
 
     public boolean check(ItemStack stack){
-        return !this.needsCheck() || check(stack, this.filterInventory, this.isWhitelist, this.respectMeta, this.respectNBT, this.respectMod, this.respectOredict);
+        return this.matches(stack) ? this.isWhitelist : !this.isWhitelist;
+    }
+
+    /**
+     * Returns whether the stack is in the filter, regardless of it being a whitelist or a blacklist
+     */
+    public boolean matches(ItemStack stack){
+        return StackUtil.isValid(stack) && this.getCompiledFilter().matches(stack);
     }
 
     public boolean needsCheck(){
-        for(int i = 0; i < this.filterInventory.getSlots(); i++){
-            if(StackUtil.isValid(this.filterInventory.getStackInSlot(i))){
+        return this.isWhitelist || this.getCompiledFilter().hasFilterSlots;
+    }
+
+    /**
+     * Causes the filter to be compiled again before the next check.
+     * Changes to the filter inventory do this automatically, but changing
+     * the contents of a filter item inside of it in place doesn't.
+     */
+    public void markFilterChanged(){
+        this.compiledFilter = null;
+    }
+
+    private CompiledFilter getCompiledFilter(){
+        CompiledFilter filter = this.compiledFilter;
+        if(filter == null || filter.meta != this.respectMeta || filter.nbt != this.respectNBT || filter.mod != this.respectMod || filter.oredict != this.respectOredict){
+            filter = new CompiledFilter(this.filterInventory, this.respectMeta, this.respectNBT, this.respectMod, this.respectOredict);
+            this.compiledFilter = filter;
+        }
+        return filter;
+    }
+
+    private static class CompiledFilter{
+
+        public final boolean meta;
+        public final boolean nbt;
+        public final boolean mod;
+        public final int oredict;
+        public boolean hasFilterSlots;
+
+        //All of the items in the filter, including the ones in nested filters, sorted by item or by mod
+        private final Map<Item, List<FilterEntry>> entriesByItem = new IdentityHashMap<Item, List<FilterEntry>>();
+        private final Map<String, List<FilterEntry>> entriesByMod = new HashMap<String, List<FilterEntry>>();
+        private final List<FilterEntry> entriesWithoutMod = new ArrayList<FilterEntry>();
+        private final List<FilterEntry> allEntries = new ArrayList<FilterEntry>();
+        //The ore ids of the stacks that were checked, by item and meta
+        private final Map<Item, OreIdCache> oreIdCaches = new IdentityHashMap<Item, OreIdCache>();
+
+        public CompiledFilter(ItemStackHandlerCustom filter, boolean meta, boolean nbt, boolean mod, int oredict){
+            this.meta = meta;
+            this.nbt = nbt;
+            this.mod = mod;
+            this.oredict = oredict;
+
+            for(int i = 0; i < filter.getSlots(); i++){
+                ItemStack slot = filter.getStackInSlot(i);
+                if(StackUtil.isValid(slot)){
+                    this.hasFilterSlots = true;
+
+                    if(SlotFilter.isFilter(slot)){
+                        ItemStackHandlerCustom inv = new ItemStackHandlerCustom(ContainerFilter.SLOT_AMOUNT);
+                        ItemDrill.loadSlotsFromNBT(inv, slot);
+                        for(int k = 0; k < inv.getSlots(); k++){
+                            ItemStack filterSlot = inv.getStackInSlot(k);
+                            if(StackUtil.isValid(filterSlot)){
+                                this.addEntry(filterSlot);
+                            }
+                        }
+                    }
+                    else{
+                        this.addEntry(slot.copy());
+                    }
+                }
+            }
+        }
+
+        private void addEntry(ItemStack stack){
+            FilterEntry entry = new FilterEntry(stack, this.oredict != 0 ? toBitSet(OreDictionary.getOreIDs(stack)) : null);
+            this.allEntries.add(entry);
+
+            if(this.mod){
+                String domain = getModDomain(stack.getItem());
+                if(domain != null){
+                    List<FilterEntry> entries = this.entriesByMod.get(domain);
+                    if(entries == null){
+                        entries = new ArrayList<FilterEntry>();
+                        this.entriesByMod.put(domain, entries);
+                    }
+                    entries.add(entry);
+                }
+                else{
+                    this.entriesWithoutMod.add(entry);
+                }
+            }
+            else{
+                List<FilterEntry> entries = this.entriesByItem.get(stack.getItem());
+                if(entries == null){
+                    entries = new ArrayList<FilterEntry>();
+                    this.entriesByItem.put(stack.getItem(), entries);
+                }
+                entries.add(entry);
+            }
+        }
+
+        public boolean matches(ItemStack stack){
+            if(this.mod){
+                String domain = getModDomain(stack.getItem());
+                //Items without a mod to compare can't be told apart by mod, so everything in the filter is compared
+                if(domain == null){
+                    return this.matchesAny(this.allEntries, stack);
+                }
+                else{
+                    return this.matchesAny(this.entriesByMod.get(domain), stack) || this.matchesAny(this.entriesWithoutMod, stack);
+                }
+            }
+            else{
+                return this.matchesAny(this.entriesByItem.get(stack.getItem()), stack);
+            }
+        }
+
+        private boolean matchesAny(List<FilterEntry> entries, ItemStack stack){
+            if(entries != null){
+                for(int i = 0; i < entries.size(); i++){
+                    FilterEntry entry = entries.get(i);
+                    if(this.meta && entry.stack.getItemDamage() != stack.getItemDamage()){
+                        continue;
+                    }
+                    if(this.nbt && !ItemStack.areItemStackTagsEqual(entry.stack, stack)){
+                        continue;
+                    }
+                    if(this.oredict == 0 || this.doOreIdsMatch(entry.oreIds, this.getOreIds(stack))){
+                        return true;
+                    }
+                }
+            }
+            return false;
+        }
+
+        private boolean doOreIdsMatch(BitSet filterIds, BitSet stackIds){
+            boolean filterEmpty = filterIds.isEmpty();
+            boolean stackEmpty = stackIds.isEmpty();
+
+            //Both empty, meaning none has OreDict entries, so they are equal
+            if(filterEmpty && stackEmpty){
+                return true;
+            }
+            //Only one empty, meaning they are not equal
+            else if(filterEmpty || stackEmpty){
+                return false;
+            }
+            //Needs to match only one id
+            else if(this.oredict == 1){
+                return filterIds.intersects(stackIds);
+            }
+            //Needs to match every id
+            else{
+                for(int id = filterIds.nextSetBit(0); id >= 0; id = filterIds.nextSetBit(id+1)){
+                    if(!stackIds.get(id)){
+                        return false;
+                    }
+                }
                 return true;
             }
         }
-        return this.isWhitelist;
+
+        private BitSet getOreIds(ItemStack stack){
+            OreIdCache cache = this.oreIdCaches.get(stack.getItem());
+            if(cache == null){
+                cache = new OreIdCache();
+                this.oreIdCaches.put(stack.getItem(), cache);
+            }
+            return cache.get(stack);
+        }
+
+        private static String getModDomain(Item item){
+            ResourceLocation reg = item.getRegistryName();
+            return reg != null ? reg.getResourceDomain() : null;
+        }
+
+        private static BitSet toBitSet(int[] ids){
+            BitSet set = new BitSet();
+            for(int id : ids){
+                set.set(id);
+            }
+            return set;
+        }
+    }
+
+    private static class FilterEntry{
+
+        public final ItemStack stack;
+        public final BitSet oreIds;
+
+        public FilterEntry(ItemStack stack, BitSet oreIds){
+            this.stack = stack;
+            this.oreIds = oreIds;
+        }
+    }
+
+    /**
+     * The ore ids of one item, by meta. OreDictionary doesn't look at anything else.
+     */
+    private static class OreIdCache{
+
+        private final Map<Integer, BitSet> oreIdsByMeta = new HashMap<Integer, BitSet>();
+
+        public BitSet get(ItemStack stack){
+            //Every durability would get its own entry and the cache would grow without end, so those aren't cached
+            if(stack.isItemStackDamageable()){
+                return CompiledFilter.toBitSet(OreDictionary.getOreIDs(stack));
+            }
+
+            int meta = stack.getItemDamage();
+            BitSet ids = this.oreIdsByMeta.get(meta);
+            if(ids == null){
+                ids = CompiledFilter.toBitSet(OreDictionary.getOreIDs(stack));
+                this.oreIdsByMeta.put(meta, ids);
+            }
+            return ids;
+        }
     }
 }
@@ -10,16 +10,23 @@
 
 package de.ellpeck.actuallyadditions.mod.tile;
 
+import de.ellpeck.actuallyadditions.mod.blocks.InitBlocks;
 import de.ellpeck.actuallyadditions.mod.config.values.ConfigIntValues;
 import de.ellpeck.actuallyadditions.mod.network.PacketHandler;
-import de.ellpeck.actuallyadditions.mod.network.PacketServerToClient;
+import de.ellpeck.actuallyadditions.mod.network.PacketTileEntitySync;
 import de.ellpeck.actuallyadditions.mod.util.ModUtil;
+import de.ellpeck.actuallyadditions.mod.util.TickProfiler;
 import de.ellpeck.actuallyadditions.mod.util.WorldUtil;
 import net.minecraft.block.state.IBlockState;
 import net.minecraft.entity.player.EntityPlayer;
+import net.minecraft.entity.player.EntityPlayerMP;
+import net.minecraft.nbt.NBTBase;
 import net.minecraft.nbt.NBTTagCompound;
+import net.minecraft.nbt.NBTTagList;
+import net.minecraft.nbt.NBTTagString;
 import net.minecraft.network.NetworkManager;
 import net.minecraft.network.play.server.SPacketUpdateTileEntity;
+import net.minecraft.server.management.PlayerChunkMapEntry;
 import net.minecraft.tileentity.TileEntity;
 import net.minecraft.util.EnumFacing;
 import net.minecraft.util.ITickable;
@@ -27,12 +34,12 @@ import net.minecraft.util.math.BlockPos;
 import net.minecraft.util.text.ITextComponent;
 import net.minecraft.util.text.TextComponentTranslation;
 import net.minecraft.world.World;
+import net.minecraft.world.WorldServer;
 import net.minecraftforge.common.capabilities.Capability;
 import net.minecraftforge.energy.CapabilityEnergy;
 import net.minecraftforge.energy.IEnergyStorage;
 import net.minecraftforge.fluids.capability.CapabilityFluidHandler;
 import net.minecraftforge.fluids.capability.IFluidHandler;
-import net.minecraftforge.fml.common.network.NetworkRegistry;
 import net.minecraftforge.fml.common.registry.GameRegistry;
 import net.minecraftforge.items.CapabilityItemHandler;
 import net.minecraftforge.items.IItemHandler;
@@ -46,6 +53,20 @@ public abstract class TileEntityBase extends TileEntity implements ITickable{
     protected int ticksElapsed;
     protected TileEntity[] tilesAround = new TileEntity[6];
     protected boolean hasSavedDataOnChangeOrWorldStart;
+    //The capabilities of the tiles in tilesAround, looked up once per side until a neighbor changes
+    private final IEnergyStorage[] energyAround = new IEnergyStorage[6];
+    private final IFluidHandler[] fluidsAround = new IFluidHandler[6];
+    private final IItemHandler[] itemsAround = new IItemHandler[6];
+    private int resolvedEnergySides;
+    private int resolvedFluidSides;
+    private int resolvedItemSides;
+    //The last sync data sent (on the server) or received (on the client), so that updates only need to contain what changed
+    private NBTTagCompound lastSyncData;
+    private boolean needsFullSync = true;
+    //The amount of Phantom Boosters on top of this tile, or -1 if it needs to be checked again
+    private int phantomBoosters = -1;
+    //Whether this tile has nothing to do and skips updating until something wakes it up again
+    private boolean isSleeping;
 
     public TileEntityBase(String name){
         this.name = name;
@@ -139,37 +160,108 @@ public abstract class TileEntityBase extends TileEntity implements ITickable{
     public final SPacketUpdateTileEntity getUpdatePacket(){
         NBTTagCompound compound = new NBTTagCompound();
         this.writeSyncableNBT(compound, NBTType.SYNC);
+        //Someone is getting the full data, so the next update has to be a full one as well for everyone to be on the same page
+        this.needsFullSync = true;
         return new SPacketUpdateTileEntity(this.pos, -1, compound);
     }
 
     @Override
     public final void onDataPacket(NetworkManager net, SPacketUpdateTileEntity pkt){
-        this.readSyncableNBT(pkt.getNbtCompound(), NBTType.SYNC);
+        this.lastSyncData = pkt.getNbtCompound();
+        this.readSyncableNBT(this.lastSyncData, NBTType.SYNC);
     }
 
     @Override
     public final NBTTagCompound getUpdateTag(){
         NBTTagCompound compound = new NBTTagCompound();
         this.writeSyncableNBT(compound, NBTType.SYNC);
+        this.needsFullSync = true;
         return compound;
     }
 
     @Override
     public final void handleUpdateTag(NBTTagCompound compound){
+        this.lastSyncData = compound;
         this.readSyncableNBT(compound, NBTType.SYNC);
     }
 
+    /**
+     * Reads an update sent by sendUpdate, which either contains all of the data
+     * or only the tags that changed since the last update
+     */
+    public final void receiveSyncPacket(NBTTagCompound compound){
+        if(compound.hasKey("Data")){
+            this.lastSyncData = compound.getCompoundTag("Data");
+        }
+        else{
+            if(this.lastSyncData == null){
+                this.lastSyncData = new NBTTagCompound();
+            }
+
+            NBTTagCompound changed = compound.getCompoundTag("Changed");
+            for(String key : changed.getKeySet()){
+                this.lastSyncData.setTag(key, changed.getTag(key));
+            }
+
+            NBTTagList removed = compound.getTagList("Removed", 8);
+            for(int i = 0; i < removed.tagCount(); i++){
+                this.lastSyncData.removeTag(removed.getStringTagAt(i));
+            }
+        }
+        this.readSyncableNBT(this.lastSyncData, NBTType.SYNC);
+    }
+
     public final void sendUpdate(){
-        if(this.world != null && !this.world.isRemote){
+        if(this.world instanceof WorldServer){
+            //Deltas only work if every client that has the tile loaded gets all of them, so they go to everyone watching the chunk.
+            //If nobody is watching, nothing is built at all, as anyone who starts watching gets the full data with the chunk.
+            PlayerChunkMapEntry watchers = ((WorldServer)this.world).getPlayerChunkMap().getEntry(this.pos.getX() >> 4, this.pos.getZ() >> 4);
+            if(watchers == null || !watchers.isSentToPlayers()){
+                return;
+            }
+
             NBTTagCompound compound = new NBTTagCompound();
             this.writeSyncableNBT(compound, NBTType.SYNC);
 
             NBTTagCompound data = new NBTTagCompound();
-            data.setTag("Data", compound);
-            data.setInteger("X", this.pos.getX());
-            data.setInteger("Y", this.pos.getY());
-            data.setInteger("Z", this.pos.getZ());
-            PacketHandler.theNetwork.sendToAllAround(new PacketServerToClient(data, PacketHandler.TILE_ENTITY_HANDLER), new NetworkRegistry.TargetPoint(this.world.provider.getDimension(), this.getPos().getX(), this.getPos().getY(), this.getPos().getZ(), 64));
+            if(this.needsFullSync || this.lastSyncData == null){
+                data.setTag("Data", compound);
+                this.needsFullSync = false;
+            }
+            else{
+                NBTTagCompound changed = new NBTTagCompound();
+                for(String key : compound.getKeySet()){
+                    NBTBase tag = compound.getTag(key);
+                    if(!tag.equals(this.lastSyncData.getTag(key))){
+                        changed.setTag(key, tag);
+                    }
+                }
+
+                NBTTagList removed = new NBTTagList();
+                for(String key : this.lastSyncData.getKeySet()){
+                    if(!compound.hasKey(key)){
+                        removed.appendTag(new NBTTagString(key));
+                    }
+                }
+
+                //Nothing changed, so there is no need to send anything
+                if(changed.hasNoTags() && removed.hasNoTags()){
+                    return;
+                }
+
+                data.setTag("Changed", changed);
+                if(!removed.hasNoTags()){
+                    data.setTag("Removed", removed);
+                }
+            }
+            this.lastSyncData = compound;
+
+            PacketTileEntitySync packet = new PacketTileEntitySync(this.pos, data);
+            for(EntityPlayer player : this.world.playerEntities){
+                if(player instanceof EntityPlayerMP && watchers.containsPlayer((EntityPlayerMP)player)){
+                    PacketHandler.theNetwork.sendTo(packet, (EntityPlayerMP)player);
+                }
+            }
         }
     }
 
@@ -219,7 +311,47 @@ public abstract class TileEntityBase extends TileEntity implements ITickable{
 
     @Override
     public final void update(){
-        this.updateEntity();
+        if(!this.isSleeping){
+            if(TickProfiler.isProfiling(this.world)){
+                long time = System.nanoTime();
+                this.updateEntity();
+                TickProfiler.addTileTime(this, System.nanoTime()-time);
+            }
+            else{
+                this.updateEntity();
+            }
+
+            if(!this.world.isRemote && this.canSleep()){
+                this.isSleeping = true;
+                //Updates only get sent in intervals, so make sure the client sees the state the tile stopped in
+                this.sendUpdate();
+            }
+        }
+    }
+
+    /**
+     * Returns whether this tile currently has nothing to do and can stop updating.
+     * This gets checked on the server after every update. A sleeping tile gets woken up
+     * when it is marked dirty (which happens on inventory and redstone changes), when a
+     * neighbor changes, or when wakeUp is called, so this should only return true
+     * if nothing but those things could give the tile something to do again.
+     */
+    public boolean canSleep(){
+        return false;
+    }
+
+    public void wakeUp(){
+        this.isSleeping = false;
+    }
+
+    public boolean isSleeping(){
+        return this.isSleeping;
+    }
+
+    @Override
+    public void markDirty(){
+        super.markDirty();
+        this.wakeUp();
     }
 
     public int getComparatorStrength(){
@@ -243,9 +375,9 @@ public abstract class TileEntityBase extends TileEntity implements ITickable{
                         }
 
                         for(EnumFacing side : sides){
-                            TileEntity tile = this.tilesAround[side.ordinal()];
-                            if(tile != null && provider.canShareTo(tile)){
-                                WorldUtil.doEnergyInteraction(this, tile, side, amount);
+                            IEnergyStorage to = this.getEnergyAround(side);
+                            if(to != null && provider.canShareTo(this.tilesAround[side.ordinal()])){
+                                WorldUtil.doEnergyInteraction(this.getCapability(CapabilityEnergy.ENERGY, side), to, amount);
                             }
                         }
                     }
@@ -265,9 +397,9 @@ public abstract class TileEntityBase extends TileEntity implements ITickable{
                         }
 
                         for(EnumFacing side : sides){
-                            TileEntity tile = this.tilesAround[side.ordinal()];
-                            if(tile != null){
-                                WorldUtil.doFluidInteraction(this, tile, side, amount);
+                            IFluidHandler to = this.getFluidsAround(side);
+                            if(to != null){
+                                WorldUtil.doFluidInteraction(this.getCapability(CapabilityFluidHandler.FLUID_HANDLER_CAPABILITY, side), to, amount);
                             }
                         }
                     }
@@ -290,13 +422,96 @@ public abstract class TileEntityBase extends TileEntity implements ITickable{
             if(this.world.isBlockLoaded(pos)){
                 this.tilesAround[side.ordinal()] = this.world.getTileEntity(pos);
             }
+
+            int i = side.ordinal();
+            this.energyAround[i] = null;
+            this.fluidsAround[i] = null;
+            this.itemsAround[i] = null;
+        }
+
+        this.resolvedEnergySides = 0;
+        this.resolvedFluidSides = 0;
+        this.resolvedItemSides = 0;
+    }
+
+    /**
+     * Returns the energy storage of the tile on the given side, cached until a neighbor changes
+     */
+    public IEnergyStorage getEnergyAround(EnumFacing side){
+        int i = side.ordinal();
+        TileEntity tile = this.tilesAround[i];
+        if(tile == null || tile.isInvalid()){
+            return null;
+        }
+
+        if((this.resolvedEnergySides & (1 << i)) == 0){
+            this.energyAround[i] = tile.hasCapability(CapabilityEnergy.ENERGY, side.getOpposite()) ? tile.getCapability(CapabilityEnergy.ENERGY, side.getOpposite()) : null;
+            this.resolvedEnergySides |= 1 << i;
         }
+        return this.energyAround[i];
+    }
+
+    /**
+     * Returns the fluid handler of the tile on the given side, cached until a neighbor changes
+     */
+    public IFluidHandler getFluidsAround(EnumFacing side){
+        int i = side.ordinal();
+        TileEntity tile = this.tilesAround[i];
+        if(tile == null || tile.isInvalid()){
+            return null;
+        }
+
+        if((this.resolvedFluidSides & (1 << i)) == 0){
+            this.fluidsAround[i] = tile.hasCapability(CapabilityFluidHandler.FLUID_HANDLER_CAPABILITY, side.getOpposite()) ? tile.getCapability(CapabilityFluidHandler.FLUID_HANDLER_CAPABILITY, side.getOpposite()) : null;
+            this.resolvedFluidSides |= 1 << i;
+        }
+        return this.fluidsAround[i];
+    }
+
+    /**
+     * Returns the item handler of the tile on the given side, cached until a neighbor changes
+     */
+    public IItemHandler getItemsAround(EnumFacing side){
+        int i = side.ordinal();
+        TileEntity tile = this.tilesAround[i];
+        if(tile == null || tile.isInvalid()){
+            return null;
+        }
+
+        if((this.resolvedItemSides & (1 << i)) == 0){
+            this.itemsAround[i] = tile.hasCapability(CapabilityItemHandler.ITEM_HANDLER_CAPABILITY, side.getOpposite()) ? tile.getCapability(CapabilityItemHandler.ITEM_HANDLER_CAPABILITY, side.getOpposite()) : null;
+            this.resolvedItemSides |= 1 << i;
+        }
+        return this.itemsAround[i];
     }
 
     public boolean shouldSaveDataOnChangeOrWorldStart(){
         return this instanceof ISharingEnergyProvider || this instanceof ISharingFluidHandler;
     }
 
+    /**
+     * Returns the given range, doubled for every Phantom Booster stacked on top of this tile.
+     * The boosters are only looked at again after a block above has changed.
+     */
+    public int getBoostedRange(int defaultRange){
+        if(this.phantomBoosters < 0){
+            this.phantomBoosters = 0;
+            for(int i = 0; i < 3; i++){
+                if(this.world.getBlockState(this.pos.up(1+i)).getBlock() == InitBlocks.blockPhantomBooster){
+                    this.phantomBoosters++;
+                }
+                else{
+                    break;
+                }
+            }
+        }
+        return defaultRange << this.phantomBoosters;
+    }
+
+    public void updatePhantomBoosters(){
+        this.phantomBoosters = -1;
+    }
+
     public void setRedstonePowered(boolean powered){
         this.isRedstonePowered = powered;
         this.markDirty();
@@ -318,6 +533,22 @@ public abstract class TileEntityBase extends TileEntity implements ITickable{
 
     @Override
     public boolean hasCapability(Capability<?> capability, EnumFacing facing){
+        //Checking the handlers directly first saves going through getCapability in the common case
+        if(capability == CapabilityItemHandler.ITEM_HANDLER_CAPABILITY){
+            if(this.getItemHandler(facing) != null){
+                return true;
+            }
+        }
+        else if(capability == CapabilityFluidHandler.FLUID_HANDLER_CAPABILITY){
+            if(this.getFluidHandler(facing) != null){
+                return true;
+            }
+        }
+        else if(capability == CapabilityEnergy.ENERGY){
+            if(this.getEnergyStorage(facing) != null){
+                return true;
+            }
+        }
         return this.getCapability(capability, facing) != null;
     }
 
@@ -98,6 +98,12 @@ public class TileEntityCoalGenerator extends TileEntityInventoryBase implements
         }
     }
 
+    @Override
+    public boolean canSleep(){
+        //Without anything burning or stored, only new fuel or a redstone change can make this do something again
+        return this.currentBurnTime <= 0 && this.storage.getEnergyStored() <= 0;
+    }
+
     @Override
     public int getComparatorStrength(){
         float calc = ((float)this.storage.getEnergyStored()/(float)this.storage.getMaxEnergyStored())*15F;
@@ -17,13 +17,16 @@ import net.minecraft.item.Item;
 import net.minecraft.item.ItemBlock;
 import net.minecraft.item.ItemStack;
 import net.minecraft.nbt.NBTTagCompound;
+import net.minecraft.tileentity.TileEntity;
 import net.minecraft.util.EnumFacing;
+import net.minecraft.util.math.BlockPos;
 import net.minecraftforge.energy.IEnergyStorage;
 
 public class TileEntityDisplayStand extends TileEntityInventoryBase implements IEnergyDisplay{
 
     public final CustomEnergyStorage storage = new CustomEnergyStorage(80000, 1000, 0);
     private int oldEnergy;
+    private boolean hasNotifiedEmpowerers;
 
     public TileEntityDisplayStand(){
         super(1, "displayStand");
@@ -34,6 +37,11 @@ public class TileEntityDisplayStand extends TileEntityInventoryBase implements I
         super.updateEntity();
 
         if(!this.world.isRemote){
+            if(!this.hasNotifiedEmpowerers){
+                this.notifyEmpowerers();
+                this.hasNotifiedEmpowerers = true;
+            }
+
             if(StackUtil.isValid(this.slots.getStackInSlot(0)) && !this.isRedstonePowered){
                 IDisplayStandItem item = this.convertToDisplayStandItem(this.slots.getStackInSlot(0).getItem());
                 if(item != null){
@@ -52,6 +60,31 @@ public class TileEntityDisplayStand extends TileEntityInventoryBase implements I
         }
     }
 
+    @Override
+    public void markDirty(){
+        super.markDirty();
+
+        //Empowerers only get notified once the stand is ticking, as it might still be loading before that
+        if(this.hasNotifiedEmpowerers && !this.world.isRemote){
+            this.notifyEmpowerers();
+        }
+    }
+
+    /**
+     * Lets the empowerers this stand could be a modifier for know that their recipes need to be checked again
+     */
+    private void notifyEmpowerers(){
+        for(EnumFacing facing : EnumFacing.HORIZONTALS){
+            BlockPos offset = this.pos.offset(facing, 3);
+            if(this.world.isBlockLoaded(offset)){
+                TileEntity tile = this.world.getTileEntity(offset);
+                if(tile instanceof TileEntityEmpowerer){
+                    ((TileEntityEmpowerer)tile).markRecipesDirty();
+                }
+            }
+        }
+    }
+
     @Override
     public boolean shouldSyncSlots(){
         return true;
@@ -12,6 +12,7 @@ package de.ellpeck.actuallyadditions.mod.tile;
 
 import de.ellpeck.actuallyadditions.api.ActuallyAdditionsAPI;
 import de.ellpeck.actuallyadditions.api.recipe.EmpowererRecipe;
+import de.ellpeck.actuallyadditions.mod.recipe.RecipeInputIndex;
 import de.ellpeck.actuallyadditions.mod.util.ItemUtil;
 import de.ellpeck.actuallyadditions.mod.util.StackUtil;
 import net.minecraft.item.ItemStack;
@@ -28,10 +29,25 @@ import java.util.List;
 
 public class TileEntityEmpowerer extends TileEntityInventoryBase{
 
+    private static final RecipeInputIndex<EmpowererRecipe> RECIPE_INDEX = new RecipeInputIndex<EmpowererRecipe>(ActuallyAdditionsAPI.EMPOWERER_RECIPES){
+        @Override
+        protected ItemStack getInput(EmpowererRecipe recipe){
+            return recipe.input;
+        }
+    };
+
     public int processTime;
     public int recipeForRenderIndex = -1;
     private int lastRecipe;
 
+    //The display stands around and all recipes whose input and modifiers currently fit,
+    //recalculated only when the input, one of the stands or the recipes change
+    private final TileEntityDisplayStand[] modifierStands = new TileEntityDisplayStand[EnumFacing.HORIZONTALS.length];
+    private final List<EmpowererRecipe> fittingRecipes = new ArrayList<EmpowererRecipe>();
+    private boolean hasStands;
+    private boolean needsRecipeUpdate = true;
+    private int cachedRecipeIndexVersion = -1;
+
     public TileEntityEmpowerer(){
         super(1, "empowerer");
     }
@@ -39,8 +55,8 @@ public class TileEntityEmpowerer extends TileEntityInventoryBase{
     public static List<EmpowererRecipe> getRecipesForInput(ItemStack input){
         List<EmpowererRecipe> recipesThatWork = new ArrayList<EmpowererRecipe>();
         if(StackUtil.isValid(input)){
-            for(EmpowererRecipe recipe : ActuallyAdditionsAPI.EMPOWERER_RECIPES){
-                if(StackUtil.isValid(recipe.input) && recipe.input.isItemEqual(input)){
+            for(EmpowererRecipe recipe : RECIPE_INDEX.getRecipes(input.getItem(), input.getItemDamage())){
+                if(recipe.input.isItemEqual(input)){
                     recipesThatWork.add(recipe);
                 }
             }
@@ -48,22 +64,33 @@ public class TileEntityEmpowerer extends TileEntityInventoryBase{
         return recipesThatWork;
     }
 
+    public static boolean hasRecipeForInput(ItemStack input){
+        if(StackUtil.isValid(input)){
+            for(EmpowererRecipe recipe : RECIPE_INDEX.getRecipes(input.getItem(), input.getItemDamage())){
+                if(recipe.input.isItemEqual(input)){
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
     @Override
     public void updateEntity(){
         super.updateEntity();
 
         if(!this.world.isRemote){
-            List<EmpowererRecipe> recipes = getRecipesForInput(this.slots.getStackInSlot(0));
-            if(!recipes.isEmpty()){
-                for(EmpowererRecipe recipe : recipes){
-                    TileEntityDisplayStand[] modifierStands = this.getFittingModifiers(recipe, recipe.time);
-                    if(modifierStands != null){ //Meaning the display stands around match all the criteria
-                        this.recipeForRenderIndex = ActuallyAdditionsAPI.EMPOWERER_RECIPES.indexOf(recipe);
+            this.updateFittingRecipes();
+
+            if(!this.fittingRecipes.isEmpty()){
+                for(EmpowererRecipe recipe : this.fittingRecipes){
+                    if(this.haveStandsEnoughEnergy(recipe, recipe.time)){ //Meaning the display stands around match all the criteria
+                        this.recipeForRenderIndex = RECIPE_INDEX.getPlace(recipe);
 
                         this.processTime++;
                         boolean done = this.processTime >= recipe.time;
 
-                        for(TileEntityDisplayStand stand : modifierStands){
+                        for(TileEntityDisplayStand stand : this.modifierStands){
                             stand.storage.extractEnergyInternal(recipe.energyPerStand/recipe.time, false);
 
                             if(done){
@@ -101,33 +128,93 @@ public class TileEntityEmpowerer extends TileEntityInventoryBase{
         }
     }
 
-    private TileEntityDisplayStand[] getFittingModifiers(EmpowererRecipe recipe, int powerDivider){
-        TileEntityDisplayStand[] modifierStands = new TileEntityDisplayStand[4];
-        List<ItemStack> itemsStillNeeded = new ArrayList<ItemStack>(Arrays.asList(recipe.modifier1, recipe.modifier2, recipe.modifier3, recipe.modifier4));
+    /**
+     * Causes the fitting recipes to be looked up again on the next tick
+     */
+    public void markRecipesDirty(){
+        this.needsRecipeUpdate = true;
+        this.wakeUp();
+    }
+
+    @Override
+    public boolean canSleep(){
+        return !this.needsRecipeUpdate && this.fittingRecipes.isEmpty();
+    }
+
+    private void updateFittingRecipes(){
+        if(this.hasStands){
+            for(TileEntityDisplayStand stand : this.modifierStands){
+                if(stand.isInvalid()){
+                    this.needsRecipeUpdate = true;
+                    break;
+                }
+            }
+        }
+
+        int version = RECIPE_INDEX.getVersion();
+        if(this.needsRecipeUpdate || this.cachedRecipeIndexVersion != version || !RECIPE_INDEX.areStillRegistered(this.fittingRecipes)){
+            this.needsRecipeUpdate = false;
+            this.cachedRecipeIndexVersion = version;
+            this.fittingRecipes.clear();
+
+            ItemStack input = this.slots.getStackInSlot(0);
+            this.hasStands = this.findModifierStands();
+            if(this.hasStands && StackUtil.isValid(input)){
+                for(EmpowererRecipe recipe : RECIPE_INDEX.getRecipes(input.getItem(), input.getItemDamage())){
+                    if(recipe.input.isItemEqual(input) && this.doModifiersFit(recipe)){
+                        this.fittingRecipes.add(recipe);
+                    }
+                }
+            }
+        }
+    }
 
+    private boolean findModifierStands(){
+        boolean foundAll = true;
         for(int i = 0; i < EnumFacing.HORIZONTALS.length; i++){
-            EnumFacing facing = EnumFacing.HORIZONTALS[i];
-            BlockPos offset = this.pos.offset(facing, 3);
+            BlockPos offset = this.pos.offset(EnumFacing.HORIZONTALS[i], 3);
             TileEntity tile = this.world.getTileEntity(offset);
 
             if(tile instanceof TileEntityDisplayStand){
-                TileEntityDisplayStand stand = (TileEntityDisplayStand)tile;
-                ItemStack standItem = stand.slots.getStackInSlot(0);
-                int containPlace = ItemUtil.getPlaceAt(itemsStillNeeded, standItem, true);
-                if(stand.storage.getEnergyStored() >= recipe.energyPerStand/powerDivider && containPlace != -1){
-                    modifierStands[i] = stand;
-                    itemsStillNeeded.remove(containPlace);
-                }
-                else{
-                    return null;
-                }
+                this.modifierStands[i] = (TileEntityDisplayStand)tile;
+            }
+            else{
+                this.modifierStands[i] = null;
+                foundAll = false;
+            }
+        }
+        return foundAll;
+    }
+
+    private boolean doModifiersFit(EmpowererRecipe recipe){
+        List<ItemStack> itemsStillNeeded = new ArrayList<ItemStack>(Arrays.asList(recipe.modifier1, recipe.modifier2, recipe.modifier3, recipe.modifier4));
+
+        for(TileEntityDisplayStand stand : this.modifierStands){
+            ItemStack standItem = stand.slots.getStackInSlot(0);
+            int containPlace = ItemUtil.getPlaceAt(itemsStillNeeded, standItem, true);
+            if(containPlace != -1){
+                itemsStillNeeded.remove(containPlace);
             }
             else{
-                return null;
+                return false;
             }
         }
+        return true;
+    }
 
-        return modifierStands;
+    private boolean haveStandsEnoughEnergy(EmpowererRecipe recipe, int powerDivider){
+        for(TileEntityDisplayStand stand : this.modifierStands){
+            if(stand.storage.getEnergyStored() < recipe.energyPerStand/powerDivider){
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public void markDirty(){
+        super.markDirty();
+        this.needsRecipeUpdate = true;
     }
 
     @Override
@@ -159,12 +246,12 @@ public class TileEntityEmpowerer extends TileEntityInventoryBase{
 
     @Override
     public boolean isItemValidForSlot(int index, ItemStack stack){
-        return !getRecipesForInput(stack).isEmpty();
+        return hasRecipeForInput(stack);
     }
 
     @Override
     public boolean canExtractItem(int index, ItemStack stack){
-        return getRecipesForInput(stack).isEmpty();
+        return !hasRecipeForInput(stack);
     }
 
     @Override
@@ -14,6 +14,7 @@ import de.ellpeck.actuallyadditions.api.ActuallyAdditionsAPI;
 import de.ellpeck.actuallyadditions.api.farmer.FarmerResult;
 import de.ellpeck.actuallyadditions.api.farmer.IFarmerBehavior;
 import de.ellpeck.actuallyadditions.api.internal.IFarmer;
+import de.ellpeck.actuallyadditions.mod.config.values.ConfigBoolValues;
 import de.ellpeck.actuallyadditions.mod.util.StackUtil;
 import de.ellpeck.actuallyadditions.mod.util.WorldUtil;
 import net.minecraft.block.state.IBlockState;
@@ -21,17 +22,33 @@ import net.minecraft.item.ItemStack;
 import net.minecraft.nbt.NBTTagCompound;
 import net.minecraft.util.EnumFacing;
 import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkPos;
 import net.minecraft.world.World;
 import net.minecraftforge.energy.IEnergyStorage;
 
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 public class TileEntityFarmer extends TileEntityInventoryBase implements IFarmer{
 
     private static final List<IFarmerBehavior> SORTED_FARMER_BEHAVIORS = new ArrayList<IFarmerBehavior>();
+    //The farmers that track changes in their field, by the chunks their field is in
+    private static final Map<World, Map<Long, Set<TileEntityFarmer>>> FARMERS_BY_CHUNK = new HashMap<World, Map<Long, Set<TileEntityFarmer>>>();
+
+    private static final int RADIUS_AROUND_CENTER = 4;
+    private static final int FIELD_WIDTH = RADIUS_AROUND_CENTER*2+1;
+    private static final int CHANGED_POSITIONS_PER_CHECK = 9;
+    //How many checks of changed positions happen before one position is checked the old way
+    private static final int CHECKS_PER_SWEEP = 8;
+    //The most energy that one of the default behaviors needs to do anything
+    private static final int ENERGY_NEEDED_FOR_CHECK = 700;
     public final CustomEnergyStorage storage = new CustomEnergyStorage(100000, 1000, 0);
 
     private int waitTime;
@@ -40,6 +57,14 @@ public class TileEntityFarmer extends TileEntityInventoryBase implements IFarmer
 
     private int lastEnergy;
 
+    private final BitSet changedPositions = new BitSet(FIELD_WIDTH*FIELD_WIDTH);
+    private final BitSet positionsToRecheck = new BitSet(FIELD_WIDTH*FIELD_WIDTH);
+    private BlockPos trackedCenter;
+    private final Set<Long> trackedChunks = new HashSet<Long>();
+    private int checksUntilSweep;
+    private int lastSeedAmount;
+    private int lastOutputAmount;
+
     public TileEntityFarmer(){
         super(12, "farmer");
     }
@@ -79,22 +104,26 @@ public class TileEntityFarmer extends TileEntityInventoryBase implements IFarmer
                     this.waitTime--;
 
                     if(this.waitTime <= 0){
-                        int radiusAroundCenter = 4;
-
                         IBlockState state = this.world.getBlockState(this.pos);
                         int meta = state.getBlock().getMetaFromState(state);
-                        BlockPos center = this.pos.offset(EnumFacing.getHorizontal(meta), radiusAroundCenter+1);
+                        BlockPos center = this.pos.offset(EnumFacing.getHorizontal(meta), RADIUS_AROUND_CENTER+1);
 
-                        BlockPos query = center.add(this.checkX, 0, this.checkY);
-                        this.checkBehaviors(query);
+                        if(ConfigBoolValues.FARMER_CHANGE_TRACKING.isEnabled()){
+                            this.checkChangedPositions(center);
 
-                        this.checkX++;
-                        if(this.checkX > radiusAroundCenter){
-                            this.checkX = -radiusAroundCenter;
-                            this.checkY++;
-                            if(this.checkY > radiusAroundCenter){
-                                this.checkY = -radiusAroundCenter;
+                            if(this.checksUntilSweep <= 0){
+                                this.checksUntilSweep = CHECKS_PER_SWEEP;
+                                this.checkNextPosition(center);
+                            }
+                            else{
+                                this.checksUntilSweep--;
+                            }
+                        }
+                        else{
+                            if(this.trackedCenter != null){
+                                this.untrackField();
                             }
+                            this.checkNextPosition(center);
                         }
                     }
                 }
@@ -109,7 +138,161 @@ public class TileEntityFarmer extends TileEntityInventoryBase implements IFarmer
         }
     }
 
-    private void checkBehaviors(BlockPos query){
+    private void checkNextPosition(BlockPos center){
+        BlockPos query = center.add(this.checkX, 0, this.checkY);
+        this.checkBehaviors(query);
+
+        this.checkX++;
+        if(this.checkX > RADIUS_AROUND_CENTER){
+            this.checkX = -RADIUS_AROUND_CENTER;
+            this.checkY++;
+            if(this.checkY > RADIUS_AROUND_CENTER){
+                this.checkY = -RADIUS_AROUND_CENTER;
+            }
+        }
+    }
+
+    private void checkChangedPositions(BlockPos center){
+        if(!center.equals(this.trackedCenter)){
+            this.trackField(center);
+        }
+
+        //Seeds being put in or output being taken out from the outside might allow positions that didn't work before to work now
+        int seedAmount = this.getItemAmount(0, 6);
+        int outputAmount = this.getItemAmount(6, 12);
+        if(seedAmount > this.lastSeedAmount || outputAmount < this.lastOutputAmount){
+            this.changedPositions.set(0, FIELD_WIDTH*FIELD_WIDTH);
+        }
+
+        int checked = 0;
+        int index = this.changedPositions.nextSetBit(0);
+        while(index >= 0 && checked < CHANGED_POSITIONS_PER_CHECK){
+            //Without enough energy the behaviors fail and the position would be lost, so it's left for when there is energy again
+            if(this.storage.getEnergyStored() < ENERGY_NEEDED_FOR_CHECK){
+                break;
+            }
+            this.changedPositions.clear(index);
+
+            BlockPos query = center.add(index/FIELD_WIDTH-RADIUS_AROUND_CENTER, 0, index%FIELD_WIDTH-RADIUS_AROUND_CENTER);
+            //Behaviors don't always cause a block update, so positions that something happened on get checked again
+            if(this.checkBehaviors(query)){
+                this.positionsToRecheck.set(index);
+            }
+
+            checked++;
+            index = this.changedPositions.nextSetBit(index+1);
+        }
+        this.changedPositions.or(this.positionsToRecheck);
+        this.positionsToRecheck.clear();
+
+        this.lastSeedAmount = this.getItemAmount(0, 6);
+        this.lastOutputAmount = this.getItemAmount(6, 12);
+    }
+
+    private int getItemAmount(int start, int end){
+        int amount = 0;
+        for(int i = start; i < end; i++){
+            amount += StackUtil.getStackSize(this.slots.getStackInSlot(i));
+        }
+        return amount;
+    }
+
+    private void markPositionChanged(BlockPos pos){
+        int x = pos.getX()-this.trackedCenter.getX()+RADIUS_AROUND_CENTER;
+        int z = pos.getZ()-this.trackedCenter.getZ()+RADIUS_AROUND_CENTER;
+        int y = pos.getY()-this.trackedCenter.getY();
+        //Changes to the ground below and plants growing upwards also count
+        if(x >= 0 && x < FIELD_WIDTH && z >= 0 && z < FIELD_WIDTH && y >= -1 && y <= 3){
+            this.changedPositions.set(x*FIELD_WIDTH+z);
+        }
+    }
+
+    private void trackField(BlockPos center){
+        this.untrackField();
+        this.trackedCenter = center;
+
+        Map<Long, Set<TileEntityFarmer>> farmers = FARMERS_BY_CHUNK.get(this.world);
+        if(farmers == null){
+            farmers = new HashMap<Long, Set<TileEntityFarmer>>();
+            FARMERS_BY_CHUNK.put(this.world, farmers);
+        }
+
+        for(int x = (center.getX()-RADIUS_AROUND_CENTER) >> 4; x <= (center.getX()+RADIUS_AROUND_CENTER) >> 4; x++){
+            for(int z = (center.getZ()-RADIUS_AROUND_CENTER) >> 4; z <= (center.getZ()+RADIUS_AROUND_CENTER) >> 4; z++){
+                long chunk = ChunkPos.asLong(x, z);
+                Set<TileEntityFarmer> chunkFarmers = farmers.get(chunk);
+                if(chunkFarmers == null){
+                    chunkFarmers = new HashSet<TileEntityFarmer>();
+                    farmers.put(chunk, chunkFarmers);
+                }
+                chunkFarmers.add(this);
+                this.trackedChunks.add(chunk);
+            }
+        }
+
+        //Nothing is known about the field yet
+        this.changedPositions.set(0, FIELD_WIDTH*FIELD_WIDTH);
+    }
+
+    private void untrackField(){
+        Map<Long, Set<TileEntityFarmer>> farmers = FARMERS_BY_CHUNK.get(this.world);
+        if(farmers != null){
+            for(long chunk : this.trackedChunks){
+                Set<TileEntityFarmer> chunkFarmers = farmers.get(chunk);
+                if(chunkFarmers != null){
+                    chunkFarmers.remove(this);
+                    if(chunkFarmers.isEmpty()){
+                        farmers.remove(chunk);
+                    }
+                }
+            }
+        }
+        this.trackedChunks.clear();
+        this.trackedCenter = null;
+    }
+
+    public static void onBlockChanged(World world, BlockPos pos){
+        if(!world.isRemote){
+            Map<Long, Set<TileEntityFarmer>> farmers = FARMERS_BY_CHUNK.get(world);
+            if(farmers != null){
+                Set<TileEntityFarmer> chunkFarmers = farmers.get(ChunkPos.asLong(pos.getX() >> 4, pos.getZ() >> 4));
+                if(chunkFarmers != null){
+                    for(TileEntityFarmer farmer : chunkFarmers){
+                        farmer.markPositionChanged(pos);
+                    }
+                }
+            }
+        }
+    }
+
+    public static void onWorldUnload(World world){
+        if(!world.isRemote){
+            FARMERS_BY_CHUNK.remove(world);
+        }
+    }
+
+    @Override
+    public void onChunkUnload(){
+        super.onChunkUnload();
+
+        if(!this.world.isRemote){
+            this.untrackField();
+        }
+    }
+
+    @Override
+    public void invalidate(){
+        super.invalidate();
+
+        if(!this.world.isRemote){
+            this.untrackField();
+        }
+    }
+
+    /**
+     * @return If a plant was harvested or a seed was planted
+     */
+    private boolean checkBehaviors(BlockPos query){
         if(SORTED_FARMER_BEHAVIORS.size() != ActuallyAdditionsAPI.FARMER_BEHAVIORS.size()){
             SORTED_FARMER_BEHAVIORS.clear();
             SORTED_FARMER_BEHAVIORS.addAll(ActuallyAdditionsAPI.FARMER_BEHAVIORS);
@@ -124,9 +307,14 @@ public class TileEntityFarmer extends TileEntityInventoryBase implements IFarmer
             });
         }
 
+        boolean harvested = false;
         for(IFarmerBehavior behavior : SORTED_FARMER_BEHAVIORS){
             FarmerResult harvestResult = behavior.tryHarvestPlant(this.world, query, this);
-            if(harvestResult == FarmerResult.STOP_PROCESSING) return;
+            if(harvestResult == FarmerResult.SUCCESS){
+                harvested = true;
+            }
+
+            if(harvestResult == FarmerResult.STOP_PROCESSING) return harvested;
             else{
                 for(int i = 0; i < this.slots.getSlots(); i++){
                     ItemStack stack = this.slots.getStackInSlot(i);
@@ -134,15 +322,16 @@ public class TileEntityFarmer extends TileEntityInventoryBase implements IFarmer
                         FarmerResult plantResult = behavior.tryPlantSeed(stack, this.world, query, this);
                         if(plantResult == FarmerResult.SUCCESS){
                             this.slots.decrStackSize(i, 1);
-                            return;
+                            return true;
                         }
                         else if(plantResult == FarmerResult.STOP_PROCESSING){
-                            return;
+                            return harvested;
                         }
                     }
                 }
             }
         }
+        return harvested;
     }
 
     @Override
@@ -15,12 +15,10 @@ import net.minecraft.block.material.Material;
 import net.minecraft.entity.item.EntityItem;
 import net.minecraft.item.ItemStack;
 import net.minecraft.nbt.NBTTagCompound;
-import net.minecraft.tileentity.TileEntity;
 import net.minecraft.util.EnumFacing;
 import net.minecraft.world.WorldServer;
 import net.minecraft.world.storage.loot.LootContext;
 import net.minecraft.world.storage.loot.LootTableList;
-import net.minecraftforge.items.CapabilityItemHandler;
 import net.minecraftforge.items.IItemHandler;
 
 import java.util.List;
@@ -81,18 +79,13 @@ public class TileEntityFishingNet extends TileEntityBase{
 
     private ItemStack storeInContainer(ItemStack stack){
         for(EnumFacing side : EnumFacing.values()){
-            TileEntity tile = this.tilesAround[side.ordinal()];
-            if(tile != null){
-                if(tile.hasCapability(CapabilityItemHandler.ITEM_HANDLER_CAPABILITY, side.getOpposite())){
-                    IItemHandler cap = tile.getCapability(CapabilityItemHandler.ITEM_HANDLER_CAPABILITY, side.getOpposite());
-                    if(cap != null){
-                        for(int i = 0; i < cap.getSlots(); i++){
-                            stack = cap.insertItem(i, stack, false);
+            IItemHandler cap = this.getItemsAround(side);
+            if(cap != null){
+                for(int i = 0; i < cap.getSlots(); i++){
+                    stack = cap.insertItem(i, stack, false);
 
-                            if(!StackUtil.isValid(stack)){
-                                return StackUtil.getEmpty();
-                            }
-                        }
+                    if(!StackUtil.isValid(stack)){
+                        return StackUtil.getEmpty();
                     }
                 }
             }
@@ -33,7 +33,12 @@ public class TileEntityFurnaceDouble extends TileEntityInventoryBase implements
     public static final int SLOT_OUTPUT_2 = 3;
     public static final int ENERGY_USE = 25;
     private static final int SMELT_TIME = 80;
-    public final CustomEnergyStorage storage = new CustomEnergyStorage(30000, 150, 0);
+    public final CustomEnergyStorage storage = new CustomEnergyStorage(30000, 150, 0){
+        @Override
+        protected void onEnergyReceived(){
+            TileEntityFurnaceDouble.this.wakeUp();
+        }
+    };
     public int firstSmeltTime;
     public int secondSmeltTime;
     public boolean isAutoSplit;
@@ -42,6 +47,7 @@ public class TileEntityFurnaceDouble extends TileEntityInventoryBase implements
     private int lastSecondSmelt;
     private boolean lastAutoSplit;
     private boolean lastSmelted;
+    private boolean isIdle;
 
     public TileEntityFurnaceDouble(){
         super(4, "furnaceDouble");
@@ -157,9 +163,16 @@ public class TileEntityFurnaceDouble extends TileEntityInventoryBase implements
                 this.lastAutoSplit = this.isAutoSplit;
                 this.lastSecondSmelt = this.secondSmeltTime;
             }
+
+            this.isIdle = !smelted || this.storage.getEnergyStored() < ENERGY_USE;
         }
     }
 
+    @Override
+    public boolean canSleep(){
+        return this.isIdle;
+    }
+
     @Override
     public boolean isItemValidForSlot(int i, ItemStack stack){
         return (i == SLOT_INPUT_1 || i == SLOT_INPUT_2) && StackUtil.isValid(FurnaceRecipes.instance().getSmeltingResult(stack));
@@ -11,6 +11,7 @@
 package de.ellpeck.actuallyadditions.mod.tile;
 
 
+import de.ellpeck.actuallyadditions.api.recipe.CrusherRecipe;
 import de.ellpeck.actuallyadditions.mod.blocks.BlockFurnaceDouble;
 import de.ellpeck.actuallyadditions.mod.misc.SoundHandler;
 import de.ellpeck.actuallyadditions.mod.network.gui.IButtonReactor;
@@ -19,6 +20,7 @@ import de.ellpeck.actuallyadditions.mod.util.StackUtil;
 import de.ellpeck.actuallyadditions.mod.util.Util;
 import net.minecraft.block.state.IBlockState;
 import net.minecraft.entity.player.EntityPlayer;
+import net.minecraft.item.Item;
 import net.minecraft.item.ItemStack;
 import net.minecraft.nbt.NBTTagCompound;
 import net.minecraft.util.EnumFacing;
@@ -36,7 +38,12 @@ public class TileEntityGrinder extends TileEntityInventoryBase implements IButto
     public static final int SLOT_OUTPUT_2_1 = 4;
     public static final int SLOT_OUTPUT_2_2 = 5;
     public static final int ENERGY_USE = 40;
-    public final CustomEnergyStorage storage = new CustomEnergyStorage(60000, 100, 0);
+    public final CustomEnergyStorage storage = new CustomEnergyStorage(60000, 100, 0){
+        @Override
+        protected void onEnergyReceived(){
+            TileEntityGrinder.this.wakeUp();
+        }
+    };
     public int firstCrushTime;
     public int secondCrushTime;
     public boolean isDouble;
@@ -46,6 +53,13 @@ public class TileEntityGrinder extends TileEntityInventoryBase implements IButto
     private int lastSecondCrush;
     private boolean lastAutoSplit;
     private boolean lastCrushed;
+    private boolean isIdle;
+
+    //The recipe last found for each input slot, so that it only has to be looked up again once the input changes
+    private final CrusherRecipe[] cachedRecipes = new CrusherRecipe[2];
+    private final Item[] cachedInputItems = new Item[2];
+    private final int[] cachedInputMetas = new int[2];
+    private final int[] cachedRecipeVersions = new int[]{-1, -1};
 
     public TileEntityGrinder(int slots, String name){
         super(slots, name);
@@ -153,18 +167,43 @@ public class TileEntityGrinder extends TileEntityInventoryBase implements IButto
             if(shouldPlaySound){
                 this.world.playSound(null, this.getPos().getX(), this.getPos().getY(), this.getPos().getZ(), SoundHandler.crusher, SoundCategory.BLOCKS, 0.025F, 1.0F);
             }
+
+            this.isIdle = !crushed || this.storage.getEnergyStored() < ENERGY_USE;
         }
     }
 
+    @Override
+    public boolean canSleep(){
+        return this.isIdle;
+    }
+
     @Override
     public boolean isItemValidForSlot(int i, ItemStack stack){
         return (i == SLOT_INPUT_1 || i == SLOT_INPUT_2) && CrusherRecipeRegistry.getRecipeFromInput(stack) != null;
     }
 
+    private CrusherRecipe getRecipeForInput(int theInput){
+        ItemStack input = this.slots.getStackInSlot(theInput);
+        if(!StackUtil.isValid(input)){
+            return null;
+        }
+
+        int cache = theInput == SLOT_INPUT_1 ? 0 : 1;
+        int version = CrusherRecipeRegistry.getRecipeIndexVersion();
+        if(this.cachedRecipeVersions[cache] != version || this.cachedInputItems[cache] != input.getItem() || this.cachedInputMetas[cache] != input.getItemDamage()){
+            this.cachedRecipes[cache] = CrusherRecipeRegistry.getRecipeFromInput(input);
+            this.cachedInputItems[cache] = input.getItem();
+            this.cachedInputMetas[cache] = input.getItemDamage();
+            this.cachedRecipeVersions[cache] = version;
+        }
+        return this.cachedRecipes[cache];
+    }
+
     public boolean canCrushOn(int theInput, int theFirstOutput, int theSecondOutput){
-        if(StackUtil.isValid(this.slots.getStackInSlot(theInput))){
-            ItemStack outputOne = CrusherRecipeRegistry.getOutputOnes(this.slots.getStackInSlot(theInput));
-            ItemStack outputTwo = CrusherRecipeRegistry.getOutputTwos(this.slots.getStackInSlot(theInput));
+        CrusherRecipe recipe = this.getRecipeForInput(theInput);
+        if(recipe != null){
+            ItemStack outputOne = recipe.outputOneStack;
+            ItemStack outputTwo = recipe.outputTwoStack;
             if(StackUtil.isValid(outputOne)){
                 if(outputOne.getItemDamage() == Util.WILDCARD){
                     outputOne.setItemDamage(0);
@@ -185,7 +224,12 @@ public class TileEntityGrinder extends TileEntityInventoryBase implements IButto
     }
 
     public void finishCrushing(int theInput, int theFirstOutput, int theSecondOutput){
-        ItemStack outputOne = CrusherRecipeRegistry.getOutputOnes(this.slots.getStackInSlot(theInput));
+        CrusherRecipe recipe = this.getRecipeForInput(theInput);
+        if(recipe == null){
+            return;
+        }
+
+        ItemStack outputOne = recipe.outputOneStack;
         if(StackUtil.isValid(outputOne)){
             if(outputOne.getItemDamage() == Util.WILDCARD){
                 outputOne.setItemDamage(0);
@@ -198,13 +242,13 @@ public class TileEntityGrinder extends TileEntityInventoryBase implements IButto
             }
         }
 
-        ItemStack outputTwo = CrusherRecipeRegistry.getOutputTwos(this.slots.getStackInSlot(theInput));
+        ItemStack outputTwo = recipe.outputTwoStack;
         if(StackUtil.isValid(outputTwo)){
             if(outputTwo.getItemDamage() == Util.WILDCARD){
                 outputTwo.setItemDamage(0);
             }
             int rand = this.world.rand.nextInt(100)+1;
-            if(rand <= CrusherRecipeRegistry.getOutputTwoChance(this.slots.getStackInSlot(theInput))){
+            if(rand <= recipe.outputTwoChance){
                 if(!StackUtil.isValid(this.slots.getStackInSlot(theSecondOutput))){
                     this.slots.setStackInSlot(theSecondOutput, outputTwo.copy());
                 }
@@ -23,6 +23,8 @@ import net.minecraftforge.items.ItemHandlerHelper;
 public abstract class TileEntityInventoryBase extends TileEntityBase{
 
     public final ItemStackHandlerCustom slots;
+    //Whether a slot changed since the last update, so that all changes during a tick are sent together
+    private boolean needsSlotSync;
 
     public TileEntityInventoryBase(int slots, String name){
         super(name);
@@ -76,12 +78,46 @@ public abstract class TileEntityInventoryBase extends TileEntityBase{
         }
     }
 
+    /**
+     * Saves every slot under its own key, so that sendUpdate only sends the slots that actually changed
+     */
+    private static void saveSlotsForSync(IItemHandler slots, NBTTagCompound compound){
+        for(int i = 0; i < slots.getSlots(); i++){
+            ItemStack slot = slots.getStackInSlot(i);
+            NBTTagCompound tagCompound = new NBTTagCompound();
+            if(StackUtil.isValid(slot)){
+                slot.writeToNBT(tagCompound);
+            }
+            compound.setTag("SyncSlot"+i, tagCompound);
+        }
+    }
+
+    private static void loadSlotsFromSync(IItemHandlerModifiable slots, NBTTagCompound compound){
+        for(int i = 0; i < slots.getSlots(); i++){
+            NBTTagCompound tagCompound = compound.getCompoundTag("SyncSlot"+i);
+            slots.setStackInSlot(i, tagCompound.hasKey("id") ? new ItemStack(tagCompound) : StackUtil.getEmpty());
+        }
+    }
+
     @Override
     public void writeSyncableNBT(NBTTagCompound compound, NBTType type){
         super.writeSyncableNBT(compound, type);
-        if(type == NBTType.SAVE_TILE || (type == NBTType.SYNC && this.shouldSyncSlots())){
+        if(type == NBTType.SAVE_TILE){
             saveSlots(this.slots, compound);
         }
+        else if(type == NBTType.SYNC && this.shouldSyncSlots()){
+            saveSlotsForSync(this.slots, compound);
+        }
+    }
+
+    @Override
+    public void updateEntity(){
+        super.updateEntity();
+
+        if(this.needsSlotSync){
+            this.needsSlotSync = false;
+            this.sendUpdate();
+        }
     }
 
     @Override
@@ -109,8 +145,8 @@ public abstract class TileEntityInventoryBase extends TileEntityBase{
     public void markDirty(){
         super.markDirty();
 
-        if(this.shouldSyncSlots()){
-            this.sendUpdate();
+        if(this.shouldSyncSlots() && this.world != null && !this.world.isRemote){
+            this.needsSlotSync = true;
         }
     }
 
@@ -122,8 +158,11 @@ public abstract class TileEntityInventoryBase extends TileEntityBase{
     @Override
     public void readSyncableNBT(NBTTagCompound compound, NBTType type){
         super.readSyncableNBT(compound, type);
-        if(type == NBTType.SAVE_TILE || (type == NBTType.SYNC && this.shouldSyncSlots())){
+        if(type == NBTType.SAVE_TILE){
             loadSlots(this.slots, compound);
         }
+        else if(type == NBTType.SYNC && this.shouldSyncSlots()){
+            loadSlotsFromSync(this.slots, compound);
+        }
     }
 }
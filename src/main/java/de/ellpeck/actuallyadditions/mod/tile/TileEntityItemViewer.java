@@ -12,16 +12,14 @@ package de.ellpeck.actuallyadditions.mod.tile;
 
 import de.ellpeck.actuallyadditions.api.laser.Network;
 import de.ellpeck.actuallyadditions.mod.ActuallyAdditions;
-import de.ellpeck.actuallyadditions.mod.network.PacketHandler;
-import de.ellpeck.actuallyadditions.mod.network.PacketServerToClient;
+import de.ellpeck.actuallyadditions.mod.network.ItemParticleBatcher;
 import de.ellpeck.actuallyadditions.mod.util.StackUtil;
+import de.ellpeck.actuallyadditions.mod.util.TickProfiler;
 import de.ellpeck.actuallyadditions.mod.util.WorldUtil;
 import de.ellpeck.actuallyadditions.mod.util.compat.CommonCapsUtil;
 import de.ellpeck.actuallyadditions.mod.util.compat.SlotlessableItemHandlerWrapper;
-import net.minecraft.entity.player.EntityPlayer;
-import net.minecraft.entity.player.EntityPlayerMP;
+import net.minecraft.item.Item;
 import net.minecraft.item.ItemStack;
-import net.minecraft.nbt.NBTTagCompound;
 import net.minecraft.tileentity.TileEntity;
 import net.minecraft.util.EnumFacing;
 import net.minecraft.util.math.BlockPos;
@@ -34,12 +32,23 @@ import java.util.*;
 
 public class TileEntityItemViewer extends TileEntityBase{
 
+    //How many slots of the item index are looked at again every tick to notice changes that didn't go through the network
+    private static final int INDEX_REFRESH_SLOTS_PER_TICK = 64;
+
     public final List<GenericItemHandlerInfo> genericInfos = new ArrayList<GenericItemHandlerInfo>();
-    public final Map<Integer, IItemHandlerInfo> itemHandlerInfos = new HashMap<Integer, IItemHandlerInfo>();
+    public final List<IItemHandlerInfo> itemHandlerInfos = new ArrayList<IItemHandlerInfo>();
     public final List<SlotlessItemHandlerInfo> slotlessInfos = new ArrayList<SlotlessItemHandlerInfo>();
     protected final SlotlessableItemHandlerWrapper itemHandler;
     public TileEntityLaserRelayItem connectedRelay;
     private int lastNetworkChangeAmount = -1;
+    //The first slot of each entry in itemHandlerInfos, to find the handler for a slot with a binary search
+    private int[] firstSlots = new int[0];
+    private int slotAmount;
+    //The slots that each item was last seen in, so that they can be found without going through every slot
+    private final Map<Item, BitSet> slotsByItem = new HashMap<Item, BitSet>();
+    private Item[] indexedItems = new Item[0];
+    private boolean isItemIndexBuilt;
+    private int nextRefreshSlot;
 
     public TileEntityItemViewer(String name){
         super(name);
@@ -47,28 +56,15 @@ public class TileEntityItemViewer extends TileEntityBase{
         IItemHandler normalHandler = new IItemHandler(){
             @Override
             public int getSlots(){
-                int size = 0;
-                List<GenericItemHandlerInfo> infos = TileEntityItemViewer.this.getItemHandlerInfos();
-                if(infos != null){
-                    for(GenericItemHandlerInfo info : infos){
-                        if(info.isLoaded()){
-                            for(SlotlessableItemHandlerWrapper handler : info.handlers){
-                                IItemHandler normalHandler = handler.getNormalHandler();
-                                if(normalHandler != null){
-                                    size += normalHandler.getSlots();
-                                }
-                            }
-                        }
-                    }
-                }
-                return size;
+                TileEntityItemViewer.this.queryAndSaveData();
+                return TileEntityItemViewer.this.slotAmount;
             }
 
             @Override
             public ItemStack getStackInSlot(int slot){
                 IItemHandlerInfo handler = TileEntityItemViewer.this.getSwitchedIndexHandler(slot);
                 if(handler != null && handler.isLoaded()){
-                    return handler.handler.getStackInSlot(handler.switchedIndex);
+                    return handler.handler.getStackInSlot(slot-handler.firstSlot);
                 }
                 return StackUtil.getEmpty();
             }
@@ -77,8 +73,9 @@ public class TileEntityItemViewer extends TileEntityBase{
             public ItemStack insertItem(int slot, ItemStack stack, boolean simulate){
                 IItemHandlerInfo info = TileEntityItemViewer.this.getSwitchedIndexHandler(slot);
                 if(info != null && info.isLoaded() && TileEntityItemViewer.this.isWhitelisted(info, stack, false)){
-                    ItemStack remain = info.handler.insertItem(info.switchedIndex, stack, simulate);
+                    ItemStack remain = info.handler.insertItem(slot-info.firstSlot, stack, simulate);
                     if(!ItemStack.areItemStacksEqual(remain, stack) && !simulate){
+                        TileEntityItemViewer.this.updateItemIndex(slot);
                         TileEntityItemViewer.this.markDirty();
                         TileEntityItemViewer.this.doItemParticle(stack, info.relayInQuestion.getPos(), TileEntityItemViewer.this.connectedRelay.getPos());
                     }
@@ -93,8 +90,9 @@ public class TileEntityItemViewer extends TileEntityBase{
                 if(StackUtil.isValid(stackIn)){
                     IItemHandlerInfo info = TileEntityItemViewer.this.getSwitchedIndexHandler(slot);
                     if(info != null && info.isLoaded() && TileEntityItemViewer.this.isWhitelisted(info, stackIn, true)){
-                        ItemStack extracted = info.handler.extractItem(info.switchedIndex, amount, simulate);
+                        ItemStack extracted = info.handler.extractItem(slot-info.firstSlot, amount, simulate);
                         if(StackUtil.isValid(extracted) && !simulate){
+                            TileEntityItemViewer.this.updateItemIndex(slot);
                             TileEntityItemViewer.this.markDirty();
                             TileEntityItemViewer.this.doItemParticle(extracted, TileEntityItemViewer.this.connectedRelay.getPos(), info.relayInQuestion.getPos());
                         }
@@ -108,7 +106,7 @@ public class TileEntityItemViewer extends TileEntityBase{
             public int getSlotLimit(int slot){
                 IItemHandlerInfo info = TileEntityItemViewer.this.getSwitchedIndexHandler(slot);
                 if(info != null && info.isLoaded()){
-                    return info.handler.getSlotLimit(info.switchedIndex);
+                    return info.handler.getSlotLimit(slot-info.firstSlot);
                 }
                 else{
                     return 0;
@@ -147,32 +145,26 @@ public class TileEntityItemViewer extends TileEntityBase{
         return super.getCapability(capability, facing);
     }
 
-    private List<GenericItemHandlerInfo> getItemHandlerInfos(){
-        this.queryAndSaveData();
-        return this.genericInfos;
+    @Override
+    public void updateEntity(){
+        super.updateEntity();
+
+        if(!this.world.isRemote && this.isItemIndexBuilt){
+            this.queryAndSaveData();
+            int amount = Math.min(INDEX_REFRESH_SLOTS_PER_TICK, this.slotAmount);
+            for(int i = 0; i < amount; i++){
+                if(this.nextRefreshSlot >= this.slotAmount){
+                    this.nextRefreshSlot = 0;
+                }
+                this.updateItemIndex(this.nextRefreshSlot);
+                this.nextRefreshSlot++;
+            }
+        }
     }
 
     public void doItemParticle(ItemStack stack, BlockPos input, BlockPos output){
         if(!this.world.isRemote){
-            NBTTagCompound compound = new NBTTagCompound();
-            stack.writeToNBT(compound);
-
-            compound.setDouble("InX", input.getX());
-            compound.setDouble("InY", input.getY());
-            compound.setDouble("InZ", input.getZ());
-
-            compound.setDouble("OutX", output.getX());
-            compound.setDouble("OutY", output.getY());
-            compound.setDouble("OutZ", output.getZ());
-
-            int rangeSq = 16*16;
-            for(EntityPlayer player : this.world.playerEntities){
-                if(player instanceof EntityPlayerMP){
-                    if(player.getDistanceSq(input) <= rangeSq || player.getDistanceSq(output) <= rangeSq){
-                        PacketHandler.theNetwork.sendTo(new PacketServerToClient(compound, PacketHandler.LASER_PARTICLE_HANDLER), (EntityPlayerMP)player);
-                    }
-                }
-            }
+            ItemParticleBatcher.addParticle(this.world, stack, input, output);
         }
     }
 
@@ -181,6 +173,7 @@ public class TileEntityItemViewer extends TileEntityBase{
             Network network = this.connectedRelay.getNetwork();
             if(network != null){
                 if(this.lastNetworkChangeAmount != network.changeAmount){
+                    long time = TickProfiler.isProfiling(this.world) ? System.nanoTime() : 0;
                     this.clearInfos();
 
                     this.connectedRelay.getItemHandlersInNetwork(network, this.genericInfos);
@@ -192,9 +185,10 @@ public class TileEntityItemViewer extends TileEntityBase{
                             for(SlotlessableItemHandlerWrapper handler : info.handlers){
                                 IItemHandler normalHandler = handler.getNormalHandler();
                                 if(normalHandler != null){
-                                    for(int i = 0; i < normalHandler.getSlots(); i++){
-                                        this.itemHandlerInfos.put(slotsQueried, new IItemHandlerInfo(normalHandler, i, info.relayInQuestion));
-                                        slotsQueried++;
+                                    int slots = normalHandler.getSlots();
+                                    if(slots > 0){
+                                        this.itemHandlerInfos.add(new IItemHandlerInfo(normalHandler, slotsQueried, info.relayInQuestion));
+                                        slotsQueried += slots;
                                     }
                                 }
 
@@ -206,8 +200,20 @@ public class TileEntityItemViewer extends TileEntityBase{
                                 }
                             }
                         }
+
+                        if(this.firstSlots.length < this.itemHandlerInfos.size()){
+                            this.firstSlots = new int[this.itemHandlerInfos.size()];
+                        }
+                        for(int i = 0; i < this.itemHandlerInfos.size(); i++){
+                            this.firstSlots[i] = this.itemHandlerInfos.get(i).firstSlot;
+                        }
+                        this.slotAmount = slotsQueried;
                     }
                     this.lastNetworkChangeAmount = network.changeAmount;
+
+                    if(time != 0){
+                        TickProfiler.addNetworkTime(network, "Item", System.nanoTime()-time);
+                    }
                 }
 
                 return;
@@ -226,6 +232,12 @@ public class TileEntityItemViewer extends TileEntityBase{
         if(!this.itemHandlerInfos.isEmpty()){
             this.itemHandlerInfos.clear();
         }
+        this.slotAmount = 0;
+
+        if(!this.slotsByItem.isEmpty()){
+            this.slotsByItem.clear();
+        }
+        this.isItemIndexBuilt = false;
 
         if(!this.slotlessInfos.isEmpty()){
             this.slotlessInfos.clear();
@@ -234,7 +246,72 @@ public class TileEntityItemViewer extends TileEntityBase{
 
     private IItemHandlerInfo getSwitchedIndexHandler(int i){
         this.queryAndSaveData();
-        return this.itemHandlerInfos.get(i);
+        if(i >= 0 && i < this.slotAmount){
+            int index = Arrays.binarySearch(this.firstSlots, 0, this.itemHandlerInfos.size(), i);
+            if(index < 0){
+                //Not the first slot of a handler, so it belongs to the one before the insertion point
+                index = -index-2;
+            }
+            return this.itemHandlerInfos.get(index);
+        }
+        return null;
+    }
+
+    /**
+     * Gets the slots that the given item was last seen in.
+     * As inventories can change without the network knowing, the slots have to be checked before using them.
+     * Those changes only show up in here once updateEntity or a lookup that missed has gone over the slot again.
+     */
+    public BitSet getSlotsWithItem(Item item){
+        this.queryAndSaveData();
+        if(!this.isItemIndexBuilt){
+            this.rebuildItemIndex();
+        }
+        return this.slotsByItem.get(item);
+    }
+
+    private void rebuildItemIndex(){
+        this.queryAndSaveData();
+
+        this.slotsByItem.clear();
+        if(this.indexedItems.length < this.slotAmount){
+            this.indexedItems = new Item[this.slotAmount];
+        }
+        else{
+            Arrays.fill(this.indexedItems, null);
+        }
+
+        this.isItemIndexBuilt = true;
+        for(int i = 0; i < this.slotAmount; i++){
+            this.updateItemIndex(i);
+        }
+    }
+
+    public void updateItemIndex(int slot){
+        if(this.isItemIndexBuilt && slot >= 0 && slot < this.slotAmount && slot < this.indexedItems.length){
+            IItemHandlerInfo info = this.getSwitchedIndexHandler(slot);
+            ItemStack stack = info != null && info.isLoaded() ? info.handler.getStackInSlot(slot-info.firstSlot) : StackUtil.getEmpty();
+            Item item = StackUtil.isValid(stack) ? stack.getItem() : null;
+
+            Item oldItem = this.indexedItems[slot];
+            if(oldItem != item){
+                if(oldItem != null){
+                    BitSet slots = this.slotsByItem.get(oldItem);
+                    if(slots != null){
+                        slots.clear(slot);
+                    }
+                }
+                if(item != null){
+                    BitSet slots = this.slotsByItem.get(item);
+                    if(slots == null){
+                        slots = new BitSet();
+                        this.slotsByItem.put(item, slots);
+                    }
+                    slots.set(slot);
+                }
+                this.indexedItems[slot] = item;
+            }
+        }
     }
 
     @Override
@@ -292,12 +369,12 @@ public class TileEntityItemViewer extends TileEntityBase{
     private static class IItemHandlerInfo extends SpecificItemHandlerInfo{
 
         public final IItemHandler handler;
-        public final int switchedIndex;
+        public final int firstSlot;
 
-        public IItemHandlerInfo(IItemHandler handler, int switchedIndex, TileEntityLaserRelayItem relayInQuestion){
+        public IItemHandlerInfo(IItemHandler handler, int firstSlot, TileEntityLaserRelayItem relayInQuestion){
             super(relayInQuestion);
             this.handler = handler;
-            this.switchedIndex = switchedIndex;
+            this.firstSlot = firstSlot;
         }
     }
 
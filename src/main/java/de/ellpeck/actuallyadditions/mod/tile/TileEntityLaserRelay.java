@@ -149,6 +149,33 @@ public abstract class TileEntityLaserRelay extends TileEntityInventoryBase{
         return this.cachedNetwork;
     }
 
+    /**
+     * Called right before the relay's block is broken, while it is still part of its network
+     */
+    public void onBroken(){
+
+    }
+
+    /**
+     * Relays cached by other relays stay around after their chunk unloads, at which point their contents are already saved
+     */
+    protected boolean isStillInWorld(){
+        return !this.isInvalid() && this.world.isBlockLoaded(this.pos) && this.world.getTileEntity(this.pos) == this;
+    }
+
+    @Override
+    public void onChunkUnload(){
+        super.onChunkUnload();
+
+        //Makes the other relays in the network collect their receivers and relays again
+        if(!this.world.isRemote){
+            Network network = this.getNetwork();
+            if(network != null){
+                network.changeAmount++;
+            }
+        }
+    }
+
     @Override
     @SideOnly(Side.CLIENT)
     public AxisAlignedBB getRenderBoundingBox(){
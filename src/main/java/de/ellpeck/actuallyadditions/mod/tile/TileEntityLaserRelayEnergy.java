@@ -10,8 +10,10 @@
 
 package de.ellpeck.actuallyadditions.mod.tile;
 
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
@@ -22,6 +24,7 @@ import de.ellpeck.actuallyadditions.api.laser.Network;
 import de.ellpeck.actuallyadditions.mod.config.values.ConfigBoolValues;
 import de.ellpeck.actuallyadditions.mod.util.ModUtil;
 import de.ellpeck.actuallyadditions.mod.util.StringUtil;
+import de.ellpeck.actuallyadditions.mod.util.TickProfiler;
 import net.minecraft.entity.player.EntityPlayer;
 import net.minecraft.nbt.NBTTagCompound;
 import net.minecraft.tileentity.TileEntity;
@@ -41,6 +44,16 @@ public class TileEntityLaserRelayEnergy extends TileEntityLaserRelay{
     private final IEnergyStorage[] energyStorages = new IEnergyStorage[6];
     private Mode mode = Mode.BOTH;
 
+    private EnergyReceiver[] cachedReceivers;
+    private TileEntityLaserRelayEnergy[] cachedRelays;
+    private Network receiverCacheNetwork;
+    private int receiverCacheChangeAmount = -1;
+
+    //Energy that was put into this relay and is waiting to be distributed into the network (when batching is enabled)
+    private int bufferedEnergy;
+    private int bufferedSides;
+    private long lastDistributionTime = -1;
+
     public TileEntityLaserRelayEnergy(String name){
         super(name, LaserType.ENERGY);
 
@@ -90,12 +103,166 @@ public class TileEntityLaserRelayEnergy extends TileEntityLaserRelay{
         if(maxTransmit > 0 && this.mode != Mode.OUTPUT_ONLY){
             Network network = this.getNetwork();
             if(network != null){
-                transmitted = this.transferEnergyToReceiverInNeed(from, network, maxTransmit, simulate);
+                long time = TickProfiler.isProfiling(this.world) ? System.nanoTime() : 0;
+
+                if(ConfigBoolValues.LASER_RELAY_ENERGY_BATCHING.isEnabled()){
+                    transmitted = this.bufferEnergy(from, network, maxTransmit, simulate);
+                }
+                else{
+                    transmitted = this.transferEnergyToReceiverInNeed(from, network, maxTransmit, simulate);
+                }
+
+                if(time != 0){
+                    TickProfiler.addNetworkTime(network, "Energy", System.nanoTime()-time);
+                }
             }
         }
         return transmitted;
     }
 
+    private int bufferEnergy(EnumFacing from, Network network, int maxBuffer, boolean simulate){
+        int space = Math.min(maxBuffer, this.getEnergyCap()-this.bufferedEnergy);
+        if(space > 0){
+            //Only take in what the receivers could take right now, so that nothing gets stuck in here
+            int placeable = this.getPlaceableEnergy(this.getReceiversInNetwork(network), from, this.bufferedEnergy+space);
+            int buffered = Math.min(space, placeable-this.bufferedEnergy);
+            if(buffered > 0){
+                if(!simulate){
+                    this.bufferedEnergy += buffered;
+                    this.bufferedSides |= 1 << from.ordinal();
+                }
+                return buffered;
+            }
+        }
+        return 0;
+    }
+
+    private int getPlaceableEnergy(EnergyReceiver[] receivers, EnumFacing from, int amount){
+        int sides = this.bufferedSides | (1 << from.ordinal());
+        int placeable = 0;
+        for(EnergyReceiver receiver : receivers){
+            if(receiver.canReceiveBufferedFrom(this, sides)){
+                placeable += receiver.storage.receiveEnergy(Math.min(amount, receiver.relay.getEnergyCap()), true);
+                if(placeable >= amount){
+                    return amount;
+                }
+            }
+        }
+        return placeable;
+    }
+
+    @Override
+    public void onBroken(){
+        super.onBroken();
+
+        //The buffered energy goes to other relays to be distributed on the next tick
+        if(this.bufferedEnergy > 0){
+            Network network = this.getNetwork();
+            if(network != null){
+                this.getReceiversInNetwork(network);
+                for(TileEntityLaserRelayEnergy relay : this.cachedRelays){
+                    if(this.bufferedEnergy <= 0){
+                        break;
+                    }
+
+                    if(relay != this && relay.isStillInWorld()){
+                        int moved = Math.min(this.bufferedEnergy, relay.getEnergyCap()-relay.bufferedEnergy);
+                        if(moved > 0){
+                            relay.bufferedEnergy += moved;
+                            this.bufferedEnergy -= moved;
+                        }
+                    }
+                }
+            }
+
+            this.bufferedEnergy = 0;
+            this.bufferedSides = 0;
+        }
+    }
+
+    @Override
+    public void updateEntity(){
+        super.updateEntity();
+
+        if(!this.world.isRemote && this.bufferedEnergy > 0 && this.lastDistributionTime != this.world.getTotalWorldTime()){
+            Network network = this.getNetwork();
+            if(network != null){
+                if(TickProfiler.isProfiling(this.world)){
+                    long time = System.nanoTime();
+                    this.distributeBufferedEnergy(network);
+                    TickProfiler.addNetworkTime(network, "Energy", System.nanoTime()-time);
+                }
+                else{
+                    this.distributeBufferedEnergy(network);
+                }
+            }
+        }
+    }
+
+    /**
+     * Splits the energy buffered in all relays of the network between all receivers in need at once.
+     * This is done by the first relay with buffered energy to update each tick.
+     */
+    private void distributeBufferedEnergy(Network network){
+        long time = this.world.getTotalWorldTime();
+        EnergyReceiver[] receivers = this.getReceiversInNetwork(network);
+        TileEntityLaserRelayEnergy[] relays = this.cachedRelays;
+
+        int total = 0;
+        double highestInputLoss = 0;
+        for(TileEntityLaserRelayEnergy relay : relays){
+            if(relay.bufferedEnergy > 0 && relay.isStillInWorld()){
+                total += relay.bufferedEnergy;
+                highestInputLoss = Math.max(highestInputLoss, relay.getLossPercentage());
+            }
+            relay.lastDistributionTime = time;
+        }
+
+        int receiversInNeed = 0;
+        for(EnergyReceiver receiver : receivers){
+            if(receiver.canReceiveBuffered() && receiver.storage.receiveEnergy(total, true) > 0){
+                receiversInNeed++;
+            }
+        }
+
+        int remaining = total;
+        for(EnergyReceiver receiver : receivers){
+            if(remaining <= 0 || receiversInNeed <= 0){
+                break;
+            }
+
+            if(receiver.canReceiveBuffered()){
+                //Whatever a receiver doesn't take gets split between the ones after it
+                int amountPer = Math.max(1, remaining/receiversInNeed);
+                int theoreticalReceived = receiver.storage.receiveEnergy(Math.min(amountPer, receiver.relay.getEnergyCap()), true);
+                if(theoreticalReceived > 0){
+                    receiversInNeed--;
+
+                    int deduct = this.calcDeduction(theoreticalReceived, Math.max(highestInputLoss, receiver.relay.getLossPercentage()));
+                    if(deduct >= theoreticalReceived){ //Happens with small numbers
+                        deduct = 0;
+                    }
+
+                    remaining -= receiver.storage.receiveEnergy(theoreticalReceived-deduct, false);
+                    remaining -= deduct;
+                }
+            }
+        }
+
+        int distributed = total-Math.max(0, remaining);
+        for(TileEntityLaserRelayEnergy relay : relays){
+            if(relay.bufferedEnergy > 0 && relay.isStillInWorld()){
+                int drained = Math.min(distributed, relay.bufferedEnergy);
+                relay.bufferedEnergy -= drained;
+                distributed -= drained;
+
+                if(relay.bufferedEnergy <= 0){
+                    relay.bufferedSides = 0;
+                }
+            }
+        }
+    }
+
     @Override
     public IEnergyStorage getEnergyStorage(EnumFacing facing){
         return this.energyStorages[facing == null ? 0 : facing.ordinal()];
@@ -137,89 +304,90 @@ public class TileEntityLaserRelayEnergy extends TileEntityLaserRelay{
         }
     }
 
-    private int transferEnergyToReceiverInNeed(EnumFacing from, Network network, int maxTransfer, boolean simulate){
-        int transmitted = 0;
-        //Keeps track of all the Laser Relays and Energy Acceptors that have been checked already to make nothing run multiple times
-        Set<BlockPos> alreadyChecked = new HashSet<BlockPos>();
-
-        Set<TileEntityLaserRelayEnergy> relaysThatWork = new HashSet<TileEntityLaserRelayEnergy>();
-        int totalReceiverAmount = 0;
-
-        for(IConnectionPair pair : network.connections){
-            for(BlockPos relay : pair.getPositions()){
-                if(relay != null && this.world.isBlockLoaded(relay) && !alreadyChecked.contains(relay)){
-                    alreadyChecked.add(relay);
-                    TileEntity relayTile = this.world.getTileEntity(relay);
-                    if(relayTile instanceof TileEntityLaserRelayEnergy){
-                        TileEntityLaserRelayEnergy theRelay = (TileEntityLaserRelayEnergy)relayTile;
-                        if(theRelay.mode != Mode.INPUT_ONLY){
-                            boolean workedOnce = false;
-
-                            for(EnumFacing facing : theRelay.receiversAround.keySet()){
-                                if(theRelay != this || facing != from){
-                                    TileEntity tile = theRelay.receiversAround.get(facing);
-
-                                    EnumFacing opp = facing.getOpposite();
-                                    if(tile != null){
-                                    if(tile.hasCapability(CapabilityEnergy.ENERGY, opp)){
-                                        IEnergyStorage cap = tile.getCapability(CapabilityEnergy.ENERGY, opp);
-                                        if(cap != null && cap.receiveEnergy(maxTransfer, true) > 0){
-                                            totalReceiverAmount++;
-                                            workedOnce = true;
+    /**
+     * Gets all energy receivers that are attached to output relays in the network.
+     * These, as well as all the energy relays in the network, are only collected again once the network changes.
+     */
+    private EnergyReceiver[] getReceiversInNetwork(Network network){
+        if(this.receiverCacheNetwork != network || this.receiverCacheChangeAmount != network.changeAmount){
+            //Keeps track of all the Laser Relays and Energy Acceptors that have been checked already to make nothing run multiple times
+            Set<BlockPos> alreadyChecked = new HashSet<BlockPos>();
+            List<EnergyReceiver> receivers = new ArrayList<EnergyReceiver>();
+            List<TileEntityLaserRelayEnergy> relays = new ArrayList<TileEntityLaserRelayEnergy>();
+
+            for(IConnectionPair pair : network.connections){
+                for(BlockPos relay : pair.getPositions()){
+                    if(relay != null && this.world.isBlockLoaded(relay) && !alreadyChecked.contains(relay)){
+                        alreadyChecked.add(relay);
+                        TileEntity relayTile = this.world.getTileEntity(relay);
+                        if(relayTile instanceof TileEntityLaserRelayEnergy){
+                            TileEntityLaserRelayEnergy theRelay = (TileEntityLaserRelayEnergy)relayTile;
+                            relays.add(theRelay);
+
+                            if(theRelay.mode != Mode.INPUT_ONLY){
+                                for(Map.Entry<EnumFacing, TileEntity> receiver : theRelay.receiversAround.entrySet()){
+                                    TileEntity tile = receiver.getValue();
+                                    if(tile != null && !alreadyChecked.contains(tile.getPos())){
+                                        EnumFacing opp = receiver.getKey().getOpposite();
+                                        if(tile.hasCapability(CapabilityEnergy.ENERGY, opp)){
+                                            IEnergyStorage cap = tile.getCapability(CapabilityEnergy.ENERGY, opp);
+                                            if(cap != null){
+                                                alreadyChecked.add(tile.getPos());
+                                                receivers.add(new EnergyReceiver(theRelay, receiver.getKey(), tile, cap));
+                                            }
                                         }
                                     }
                                 }
-                                }
-                            }
-
-                            if(workedOnce){
-                                relaysThatWork.add(theRelay);
                             }
                         }
                     }
                 }
             }
+
+            this.cachedReceivers = receivers.toArray(new EnergyReceiver[receivers.size()]);
+            this.cachedRelays = relays.toArray(new TileEntityLaserRelayEnergy[relays.size()]);
+            this.receiverCacheNetwork = network;
+            this.receiverCacheChangeAmount = network.changeAmount;
         }
+        return this.cachedReceivers;
+    }
 
-        if(totalReceiverAmount > 0 && !relaysThatWork.isEmpty()){
+    private int transferEnergyToReceiverInNeed(EnumFacing from, Network network, int maxTransfer, boolean simulate){
+        int transmitted = 0;
+        EnergyReceiver[] receivers = this.getReceiversInNetwork(network);
+
+        int totalReceiverAmount = 0;
+        for(EnergyReceiver receiver : receivers){
+            if(receiver.canReceiveFrom(this, from) && receiver.storage.receiveEnergy(maxTransfer, true) > 0){
+                totalReceiverAmount++;
+            }
+        }
+
+        if(totalReceiverAmount > 0){
             int amountPer = maxTransfer/totalReceiverAmount;
             if(amountPer <= 0){
                 amountPer = maxTransfer;
             }
 
-            for(TileEntityLaserRelayEnergy theRelay : relaysThatWork){
-                double highestLoss = Math.max(theRelay.getLossPercentage(), this.getLossPercentage());
-                int lowestCap = Math.min(theRelay.getEnergyCap(), this.getEnergyCap());
-                for(Map.Entry<EnumFacing, TileEntity> receiver : theRelay.receiversAround.entrySet()){
-                    if(receiver != null){
-                        EnumFacing side = receiver.getKey();
-                        EnumFacing opp = side.getOpposite();
-                        TileEntity tile = receiver.getValue();
-                        if(!alreadyChecked.contains(tile.getPos())){
-                            alreadyChecked.add(tile.getPos());
-                            if(theRelay != this || side != from){
-                                if(tile.hasCapability(CapabilityEnergy.ENERGY, opp)){
-                                    IEnergyStorage cap = tile.getCapability(CapabilityEnergy.ENERGY, opp);
-                                    if(cap != null){
-                                        int theoreticalReceived = cap.receiveEnergy(Math.min(amountPer, lowestCap), true);
-                                        if(theoreticalReceived > 0){
-                                            int deduct = this.calcDeduction(theoreticalReceived, highestLoss);
-                                            if(deduct >= theoreticalReceived){ //Happens with small numbers
-                                                deduct = 0;
-                                            }
+            for(EnergyReceiver receiver : receivers){
+                if(receiver.canReceiveFrom(this, from)){
+                    double highestLoss = Math.max(receiver.relay.getLossPercentage(), this.getLossPercentage());
+                    int lowestCap = Math.min(receiver.relay.getEnergyCap(), this.getEnergyCap());
 
-                                            transmitted += cap.receiveEnergy(theoreticalReceived-deduct, simulate);
-                                            transmitted += deduct;
-                                        }
-                                    }
-                                }
-
-                                //If everything that could be transmitted was transmitted
-                                if(transmitted >= maxTransfer){
-                                    return transmitted;
-                                }
-                            }
+                    int theoreticalReceived = receiver.storage.receiveEnergy(Math.min(amountPer, lowestCap), true);
+                    if(theoreticalReceived > 0){
+                        int deduct = this.calcDeduction(theoreticalReceived, highestLoss);
+                        if(deduct >= theoreticalReceived){ //Happens with small numbers
+                            deduct = 0;
                         }
+
+                        transmitted += receiver.storage.receiveEnergy(theoreticalReceived-deduct, simulate);
+                        transmitted += deduct;
+                    }
+
+                    //If everything that could be transmitted was transmitted
+                    if(transmitted >= maxTransfer){
+                        return transmitted;
                     }
                 }
             }
@@ -255,6 +423,12 @@ public class TileEntityLaserRelayEnergy extends TileEntityLaserRelay{
     @Override
     public void onCompassAction(EntityPlayer player){
         this.mode = this.mode.getNext();
+
+        //The relays that output energy are cached by the network
+        Network network = this.getNetwork();
+        if(network != null){
+            network.changeAmount++;
+        }
     }
 
     @Override
@@ -264,6 +438,9 @@ public class TileEntityLaserRelayEnergy extends TileEntityLaserRelay{
         if(type != NBTType.SAVE_BLOCK){
             compound.setString("Mode", this.mode.toString());
         }
+        if(type == NBTType.SAVE_TILE){
+            compound.setInteger("BufferedEnergy", this.bufferedEnergy);
+        }
     }
 
     @Override
@@ -276,6 +453,42 @@ public class TileEntityLaserRelayEnergy extends TileEntityLaserRelay{
                 this.mode = Mode.valueOf(modeStrg);
             }
         }
+        if(type == NBTType.SAVE_TILE){
+            this.bufferedEnergy = compound.getInteger("BufferedEnergy");
+        }
+    }
+
+    private static class EnergyReceiver{
+
+        public final TileEntityLaserRelayEnergy relay;
+        public final EnumFacing side;
+        public final TileEntity tile;
+        public final IEnergyStorage storage;
+
+        public EnergyReceiver(TileEntityLaserRelayEnergy relay, EnumFacing side, TileEntity tile, IEnergyStorage storage){
+            this.relay = relay;
+            this.side = side;
+            this.tile = tile;
+            this.storage = storage;
+        }
+
+        public boolean canReceiveFrom(TileEntityLaserRelayEnergy sender, EnumFacing from){
+            return (this.relay != sender || this.side != from) && this.isAvailable();
+        }
+
+        public boolean canReceiveBuffered(){
+            //Don't send buffered energy back to where it came from
+            return (this.relay.bufferedSides & (1 << this.side.ordinal())) == 0 && this.isAvailable();
+        }
+
+        public boolean canReceiveBufferedFrom(TileEntityLaserRelayEnergy sender, int senderSides){
+            int sides = this.relay == sender ? senderSides : this.relay.bufferedSides;
+            return (sides & (1 << this.side.ordinal())) == 0 && this.isAvailable();
+        }
+
+        private boolean isAvailable(){
+            return !this.tile.isInvalid() && this.relay.getWorld().isBlockLoaded(this.relay.getPos());
+        }
     }
 
     public enum Mode{
@@ -13,9 +13,11 @@ package de.ellpeck.actuallyadditions.mod.tile;
 import de.ellpeck.actuallyadditions.api.laser.IConnectionPair;
 import de.ellpeck.actuallyadditions.api.laser.LaserType;
 import de.ellpeck.actuallyadditions.api.laser.Network;
+import de.ellpeck.actuallyadditions.mod.config.values.ConfigBoolValues;
 import de.ellpeck.actuallyadditions.mod.tile.TileEntityLaserRelayEnergy.Mode;
 import de.ellpeck.actuallyadditions.mod.util.ModUtil;
 import de.ellpeck.actuallyadditions.mod.util.StringUtil;
+import de.ellpeck.actuallyadditions.mod.util.TickProfiler;
 import de.ellpeck.actuallyadditions.mod.util.WorldUtil;
 import net.minecraft.entity.player.EntityPlayer;
 import net.minecraft.nbt.NBTTagCompound;
@@ -23,6 +25,7 @@ import net.minecraft.tileentity.TileEntity;
 import net.minecraft.util.EnumFacing;
 import net.minecraft.util.math.BlockPos;
 import net.minecraft.util.text.TextFormatting;
+import net.minecraftforge.fluids.Fluid;
 import net.minecraftforge.fluids.FluidStack;
 import net.minecraftforge.fluids.capability.CapabilityFluidHandler;
 import net.minecraftforge.fluids.capability.IFluidHandler;
@@ -30,8 +33,10 @@ import net.minecraftforge.fluids.capability.IFluidTankProperties;
 import net.minecraftforge.fml.relauncher.Side;
 import net.minecraftforge.fml.relauncher.SideOnly;
 
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
@@ -42,6 +47,19 @@ public class TileEntityLaserRelayFluids extends TileEntityLaserRelay{
     private final IFluidHandler[] fluidHandlers = new IFluidHandler[6];
     private Mode mode = Mode.BOTH;
 
+    //The most fluid a relay buffers per tick before it is distributed (when batching is enabled)
+    public static final int BUFFER_CAPACITY = Fluid.BUCKET_VOLUME*16;
+
+    private FluidReceiver[] cachedReceivers;
+    private TileEntityLaserRelayFluids[] cachedRelays;
+    private Network receiverCacheNetwork;
+    private int receiverCacheChangeAmount = -1;
+
+    //Fluid that was put into this relay and is waiting to be distributed into the network (when batching is enabled)
+    private FluidStack bufferedFluid;
+    private int bufferedSides;
+    private long lastDistributionTime = -1;
+
     public TileEntityLaserRelayFluids(){
         super("laserRelayFluids", LaserType.FLUID);
 
@@ -81,6 +99,20 @@ public class TileEntityLaserRelayFluids extends TileEntityLaserRelay{
                     WorldUtil.doFluidInteraction(this.handlersAround.get(side), this, side.getOpposite(), Integer.MAX_VALUE);
                 }
             }
+
+            if(this.bufferedFluid != null && this.lastDistributionTime != this.world.getTotalWorldTime()){
+                Network network = this.getNetwork();
+                if(network != null){
+                    if(TickProfiler.isProfiling(this.world)){
+                        long time = System.nanoTime();
+                        this.distributeBufferedFluids(network);
+                        TickProfiler.addNetworkTime(network, "Fluid", System.nanoTime()-time);
+                    }
+                    else{
+                        this.distributeBufferedFluids(network);
+                    }
+                }
+            }
         }
     }
 
@@ -130,85 +162,254 @@ public class TileEntityLaserRelayFluids extends TileEntityLaserRelay{
         if(stack != null && this.mode != Mode.OUTPUT_ONLY){
             Network network = this.getNetwork();
             if(network != null){
-                transmitted = this.transferFluidToReceiverInNeed(from, network, stack, doFill);
+                long time = TickProfiler.isProfiling(this.world) ? System.nanoTime() : 0;
+
+                if(ConfigBoolValues.LASER_RELAY_FLUID_BATCHING.isEnabled()){
+                    transmitted = this.bufferFluid(from, network, stack, doFill);
+                }
+                else{
+                    transmitted = this.transferFluidToReceiverInNeed(from, network, stack, doFill);
+                }
+
+                if(time != 0){
+                    TickProfiler.addNetworkTime(network, "Fluid", System.nanoTime()-time);
+                }
             }
         }
         return transmitted;
     }
 
-    private int transferFluidToReceiverInNeed(EnumFacing from, Network network, FluidStack stack, boolean doFill){
-        int transmitted = 0;
-        //Keeps track of all the Laser Relays and Energy Acceptors that have been checked already to make nothing run multiple times
-        Set<BlockPos> alreadyChecked = new HashSet<BlockPos>();
+    private int bufferFluid(EnumFacing from, Network network, FluidStack stack, boolean doFill){
+        //Only one kind of fluid is buffered at a time
+        if(this.bufferedFluid == null || this.bufferedFluid.isFluidEqual(stack)){
+            int alreadyBuffered = this.bufferedFluid == null ? 0 : this.bufferedFluid.amount;
+            int space = Math.min(stack.amount, BUFFER_CAPACITY-alreadyBuffered);
+            if(space <= 0){
+                return 0;
+            }
 
-        Set<TileEntityLaserRelayFluids> relaysThatWork = new HashSet<TileEntityLaserRelayFluids>();
-        int totalReceiverAmount = 0;
+            //Only take in what the receivers could take right now, so that nothing gets stuck in here
+            int placeable = this.getPlaceableAmount(this.getReceiversInNetwork(network), from, new FluidStack(stack, alreadyBuffered+space));
+            int buffered = Math.min(space, placeable-alreadyBuffered);
+            if(buffered > 0){
+                if(doFill){
+                    if(this.bufferedFluid == null){
+                        this.bufferedFluid = new FluidStack(stack, buffered);
+                    }
+                    else{
+                        this.bufferedFluid.amount += buffered;
+                    }
+                    this.bufferedSides |= 1 << from.ordinal();
+                }
+                return buffered;
+            }
+        }
+        return 0;
+    }
+
+    private int getPlaceableAmount(FluidReceiver[] receivers, EnumFacing from, FluidStack stack){
+        int sides = this.bufferedSides | (1 << from.ordinal());
+        int placeable = 0;
+        for(FluidReceiver receiver : receivers){
+            if(receiver.canReceiveBufferedFrom(this, sides)){
+                placeable += receiver.handler.fill(stack, false);
+                if(placeable >= stack.amount){
+                    return stack.amount;
+                }
+            }
+        }
+        return placeable;
+    }
+
+    @Override
+    public void onBroken(){
+        super.onBroken();
+
+        //The buffered fluid goes to the receivers, and what they don't take goes to other relays to be distributed later
+        if(this.bufferedFluid != null){
+            Network network = this.getNetwork();
+            if(network != null){
+                int remaining = this.distributeFluid(this.getReceiversInNetwork(network), this.bufferedFluid.copy());
+                for(TileEntityLaserRelayFluids relay : this.cachedRelays){
+                    if(remaining <= 0){
+                        break;
+                    }
+
+                    if(relay != this && relay.isStillInWorld() && (relay.bufferedFluid == null || relay.bufferedFluid.isFluidEqual(this.bufferedFluid))){
+                        int moved = Math.min(remaining, BUFFER_CAPACITY-(relay.bufferedFluid == null ? 0 : relay.bufferedFluid.amount));
+                        if(moved > 0){
+                            if(relay.bufferedFluid == null){
+                                relay.bufferedFluid = new FluidStack(this.bufferedFluid, moved);
+                            }
+                            else{
+                                relay.bufferedFluid.amount += moved;
+                            }
+                            remaining -= moved;
+                        }
+                    }
+                }
+            }
+
+            this.bufferedFluid = null;
+            this.bufferedSides = 0;
+        }
+    }
+
+    /**
+     * Splits the fluid buffered in all relays of the network between all receivers in need at once,
+     * with all relays that buffered the same fluid being handled together.
+     * This is done by the first relay with buffered fluid to update each tick.
+     */
+    private void distributeBufferedFluids(Network network){
+        long time = this.world.getTotalWorldTime();
+        FluidReceiver[] receivers = this.getReceiversInNetwork(network);
+        TileEntityLaserRelayFluids[] relays = this.cachedRelays;
+
+        for(TileEntityLaserRelayFluids relay : relays){
+            if(!relay.isStillInWorld()){
+                continue;
+            }
+
+            if(relay.bufferedFluid != null && relay.lastDistributionTime != time){
+                FluidStack fluid = relay.bufferedFluid;
+
+                int total = 0;
+                for(TileEntityLaserRelayFluids other : relays){
+                    if(other.bufferedFluid != null && other.lastDistributionTime != time && other.bufferedFluid.isFluidEqual(fluid) && other.isStillInWorld()){
+                        total += other.bufferedFluid.amount;
+                    }
+                }
+
+                int distributed = total-this.distributeFluid(receivers, new FluidStack(fluid, total));
+                for(TileEntityLaserRelayFluids other : relays){
+                    if(other.bufferedFluid != null && other.lastDistributionTime != time && other.bufferedFluid.isFluidEqual(fluid) && other.isStillInWorld()){
+                        int drained = Math.min(distributed, other.bufferedFluid.amount);
+                        other.bufferedFluid.amount -= drained;
+                        distributed -= drained;
 
-        for(IConnectionPair pair : network.connections){
-            for(BlockPos relay : pair.getPositions()){
-                if(relay != null && this.world.isBlockLoaded(relay) && !alreadyChecked.contains(relay)){
-                    alreadyChecked.add(relay);
-                    TileEntity relayTile = this.world.getTileEntity(relay);
-                    if(relayTile instanceof TileEntityLaserRelayFluids){
-                        TileEntityLaserRelayFluids theRelay = (TileEntityLaserRelayFluids)relayTile;
-                        if(theRelay.mode != Mode.INPUT_ONLY){
-                            boolean workedOnce = false;
-
-                            for(EnumFacing facing : theRelay.handlersAround.keySet()){
-                                if(theRelay != this || facing != from){
-                                    TileEntity tile = theRelay.handlersAround.get(facing);
-
-                                    EnumFacing opp = facing.getOpposite();
-                                    if(tile.hasCapability(CapabilityFluidHandler.FLUID_HANDLER_CAPABILITY, opp)){
-                                        IFluidHandler cap = tile.getCapability(CapabilityFluidHandler.FLUID_HANDLER_CAPABILITY, opp);
-                                        if(cap != null && cap.fill(stack, false) > 0){
-                                            totalReceiverAmount++;
-                                            workedOnce = true;
+                        if(other.bufferedFluid.amount <= 0){
+                            other.bufferedFluid = null;
+                            other.bufferedSides = 0;
+                        }
+                        other.lastDistributionTime = time;
+                    }
+                }
+            }
+            relay.lastDistributionTime = time;
+        }
+    }
+
+    /**
+     * @return The amount of fluid that couldn't be distributed
+     */
+    private int distributeFluid(FluidReceiver[] receivers, FluidStack stack){
+        int receiversInNeed = 0;
+        for(FluidReceiver receiver : receivers){
+            if(receiver.canReceiveBuffered() && receiver.handler.fill(stack, false) > 0){
+                receiversInNeed++;
+            }
+        }
+
+        int remaining = stack.amount;
+        for(FluidReceiver receiver : receivers){
+            if(remaining <= 0 || receiversInNeed <= 0){
+                break;
+            }
+
+            if(receiver.canReceiveBuffered()){
+                //Whatever a receiver doesn't take gets split between the ones after it
+                FluidStack toFill = new FluidStack(stack, Math.max(1, remaining/receiversInNeed));
+                if(receiver.handler.fill(toFill, false) > 0){
+                    receiversInNeed--;
+                    remaining -= receiver.handler.fill(toFill, true);
+                }
+            }
+        }
+        return Math.max(0, remaining);
+    }
+
+    /**
+     * Gets all fluid handlers that are attached to output relays in the network.
+     * These, as well as all the fluid relays in the network, are only collected again once the network changes.
+     */
+    private FluidReceiver[] getReceiversInNetwork(Network network){
+        if(this.receiverCacheNetwork != network || this.receiverCacheChangeAmount != network.changeAmount){
+            //Keeps track of all the Laser Relays and Fluid Handlers that have been checked already to make nothing run multiple times
+            Set<BlockPos> alreadyChecked = new HashSet<BlockPos>();
+            List<FluidReceiver> receivers = new ArrayList<FluidReceiver>();
+            List<TileEntityLaserRelayFluids> relays = new ArrayList<TileEntityLaserRelayFluids>();
+
+            for(IConnectionPair pair : network.connections){
+                for(BlockPos relay : pair.getPositions()){
+                    if(relay != null && this.world.isBlockLoaded(relay) && !alreadyChecked.contains(relay)){
+                        alreadyChecked.add(relay);
+                        TileEntity relayTile = this.world.getTileEntity(relay);
+                        if(relayTile instanceof TileEntityLaserRelayFluids){
+                            TileEntityLaserRelayFluids theRelay = (TileEntityLaserRelayFluids)relayTile;
+                            relays.add(theRelay);
+
+                            if(theRelay.mode != Mode.INPUT_ONLY){
+                                for(Map.Entry<EnumFacing, TileEntity> receiver : theRelay.handlersAround.entrySet()){
+                                    TileEntity tile = receiver.getValue();
+                                    if(tile != null && !alreadyChecked.contains(tile.getPos())){
+                                        EnumFacing opp = receiver.getKey().getOpposite();
+                                        if(tile.hasCapability(CapabilityFluidHandler.FLUID_HANDLER_CAPABILITY, opp)){
+                                            IFluidHandler cap = tile.getCapability(CapabilityFluidHandler.FLUID_HANDLER_CAPABILITY, opp);
+                                            if(cap != null){
+                                                alreadyChecked.add(tile.getPos());
+                                                receivers.add(new FluidReceiver(theRelay, receiver.getKey(), tile, cap));
+                                            }
                                         }
                                     }
                                 }
                             }
-
-                            if(workedOnce){
-                                relaysThatWork.add(theRelay);
-                            }
                         }
                     }
                 }
             }
+
+            this.cachedReceivers = receivers.toArray(new FluidReceiver[receivers.size()]);
+            this.cachedRelays = relays.toArray(new TileEntityLaserRelayFluids[relays.size()]);
+            this.receiverCacheNetwork = network;
+            this.receiverCacheChangeAmount = network.changeAmount;
         }
+        return this.cachedReceivers;
+    }
+
+    private int transferFluidToReceiverInNeed(EnumFacing from, Network network, FluidStack stack, boolean doFill){
+        int transmitted = 0;
+        FluidReceiver[] receivers = this.getReceiversInNetwork(network);
 
-        if(totalReceiverAmount > 0 && !relaysThatWork.isEmpty()){
+        int totalReceiverAmount = 0;
+        for(FluidReceiver receiver : receivers){
+            if(receiver.canReceiveFrom(this, from) && receiver.handler.fill(stack, false) > 0){
+                totalReceiverAmount++;
+            }
+        }
+
+        if(totalReceiverAmount > 0){
             int amountPer = stack.amount/totalReceiverAmount;
             if(amountPer <= 0){
                 amountPer = stack.amount;
             }
 
-            for(TileEntityLaserRelayFluids theRelay : relaysThatWork){
-                for(Map.Entry<EnumFacing, TileEntity> receiver : theRelay.handlersAround.entrySet()){
-                    if(receiver != null){
-                        EnumFacing side = receiver.getKey();
-                        EnumFacing opp = side.getOpposite();
-                        TileEntity tile = receiver.getValue();
-                        if(!alreadyChecked.contains(tile.getPos())){
-                            alreadyChecked.add(tile.getPos());
-                            if(theRelay != this || side != from){
-                                if(tile.hasCapability(CapabilityFluidHandler.FLUID_HANDLER_CAPABILITY, opp)){
-                                    IFluidHandler cap = tile.getCapability(CapabilityFluidHandler.FLUID_HANDLER_CAPABILITY, opp);
-                                    if(cap != null){
-                                        FluidStack copy = stack.copy();
-                                        copy.amount = amountPer;
-                                        transmitted += cap.fill(copy, doFill);
-                                    }
-                                }
+            FluidStack toFill = new FluidStack(stack, amountPer);
+            for(FluidReceiver receiver : receivers){
+                if(receiver.canReceiveFrom(this, from)){
+                    int filled = receiver.handler.fill(toFill, doFill);
+                    if(filled > 0){
+                        transmitted += filled;
 
-                                //If everything that could be transmitted was transmitted
-                                if(transmitted >= stack.amount){
-                                    return transmitted;
-                                }
-                            }
+                        //A handler that took some of the fluid might hold on to the stack, so the next one gets a new one
+                        if(doFill){
+                            toFill = new FluidStack(stack, amountPer);
                         }
                     }
+
+                    //If everything that could be transmitted was transmitted
+                    if(transmitted >= stack.amount){
+                        return transmitted;
+                    }
                 }
             }
         }
@@ -231,6 +432,12 @@ public class TileEntityLaserRelayFluids extends TileEntityLaserRelay{
     @Override
     public void onCompassAction(EntityPlayer player){
         this.mode = this.mode.getNext();
+
+        //The relays that output fluids are cached by the network
+        Network network = this.getNetwork();
+        if(network != null){
+            network.changeAmount++;
+        }
     }
 
     @Override
@@ -240,6 +447,9 @@ public class TileEntityLaserRelayFluids extends TileEntityLaserRelay{
         if(type != NBTType.SAVE_BLOCK){
             compound.setString("Mode", this.mode.toString());
         }
+        if(type == NBTType.SAVE_TILE && this.bufferedFluid != null){
+            compound.setTag("BufferedFluid", this.bufferedFluid.writeToNBT(new NBTTagCompound()));
+        }
     }
 
     @Override
@@ -252,5 +462,41 @@ public class TileEntityLaserRelayFluids extends TileEntityLaserRelay{
                 this.mode = Mode.valueOf(modeStrg);
             }
         }
+        if(type == NBTType.SAVE_TILE){
+            this.bufferedFluid = compound.hasKey("BufferedFluid") ? FluidStack.loadFluidStackFromNBT(compound.getCompoundTag("BufferedFluid")) : null;
+        }
+    }
+
+    private static class FluidReceiver{
+
+        public final TileEntityLaserRelayFluids relay;
+        public final EnumFacing side;
+        public final TileEntity tile;
+        public final IFluidHandler handler;
+
+        public FluidReceiver(TileEntityLaserRelayFluids relay, EnumFacing side, TileEntity tile, IFluidHandler handler){
+            this.relay = relay;
+            this.side = side;
+            this.tile = tile;
+            this.handler = handler;
+        }
+
+        public boolean canReceiveFrom(TileEntityLaserRelayFluids sender, EnumFacing from){
+            return (this.relay != sender || this.side != from) && this.isAvailable();
+        }
+
+        public boolean canReceiveBuffered(){
+            //Don't send buffered fluid back to where it came from
+            return (this.relay.bufferedSides & (1 << this.side.ordinal())) == 0 && this.isAvailable();
+        }
+
+        public boolean canReceiveBufferedFrom(TileEntityLaserRelayFluids sender, int senderSides){
+            int sides = this.relay == sender ? senderSides : this.relay.bufferedSides;
+            return (sides & (1 << this.side.ordinal())) == 0 && this.isAvailable();
+        }
+
+        private boolean isAvailable(){
+            return !this.tile.isInvalid() && this.relay.getWorld().isBlockLoaded(this.relay.getPos());
+        }
     }
 }
@@ -88,7 +88,7 @@ public class TileEntityLaserRelayItemWhitelist extends TileEntityLaserRelayItem
         ItemStack copy = stack.copy();
         copy = StackUtil.setStackSize(copy, 1);
 
-        if(!FilterSettings.check(copy, usedSettings.filterInventory, true, usedSettings.respectMeta, usedSettings.respectNBT, usedSettings.respectMod, usedSettings.respectOredict)){
+        if(!usedSettings.matches(copy)){
             for(int k = 0; k < usedSettings.filterInventory.getSlots(); k++){
                 ItemStack slot = usedSettings.filterInventory.getStackInSlot(k);
                 if(StackUtil.isValid(slot)){
@@ -107,6 +107,7 @@ public class TileEntityLaserRelayItemWhitelist extends TileEntityLaserRelayItem
 
                         if(did){
                             ItemDrill.writeSlotsToNBT(inv, slot);
+                            usedSettings.markFilterChanged();
                             break;
                         }
                     }
@@ -10,6 +10,7 @@
 
 package de.ellpeck.actuallyadditions.mod.tile;
 
+import de.ellpeck.actuallyadditions.mod.config.values.ConfigIntValues;
 import de.ellpeck.actuallyadditions.mod.config.values.ConfigStringListValues;
 import de.ellpeck.actuallyadditions.mod.items.ItemDrill;
 import de.ellpeck.actuallyadditions.mod.network.gui.IButtonReactor;
@@ -29,15 +30,32 @@ import net.minecraft.util.math.RayTraceResult;
 import net.minecraft.util.math.RayTraceResult.Type;
 import net.minecraft.util.math.Vec3d;
 import net.minecraft.world.WorldServer;
+import net.minecraft.world.chunk.Chunk;
+import net.minecraft.world.chunk.storage.ExtendedBlockStorage;
 import net.minecraftforge.common.util.FakePlayerFactory;
 import net.minecraftforge.energy.IEnergyStorage;
 import net.minecraftforge.fluids.IFluidBlock;
 import net.minecraftforge.oredict.OreDictionary;
 
+import java.util.IdentityHashMap;
+import java.util.Map;
+
 public class TileEntityMiner extends TileEntityInventoryBase implements IButtonReactor, IEnergyDisplay{
 
     public static final int ENERGY_USE_PER_BLOCK = 650;
     public static final int DEFAULT_RANGE = 2;
+    //The maximum amount of positions that are looked at every time the miner mines, so that large empty areas can't stall a tick
+    private static final int MAX_SCANS_PER_OPERATION = 4096;
+    private static final int MINE_SUCCESS = 0;
+    private static final int MINE_SKIPPED = 1;
+    private static final int MINE_FAILED = 2;
+
+    //Verdicts for blocks and states that were already looked at, as finding them out means going through the config and the ore dictionary.
+    //Only ever accessed from the server thread.
+    private static final Map<Block, Boolean> BLACKLISTED_BLOCKS = new IdentityHashMap<Block, Boolean>();
+    private static final Map<IBlockState, Boolean> ORE_STATES = new IdentityHashMap<IBlockState, Boolean>();
+    private static String[] cachedBlacklist;
+    private static String[] cachedWhitelist;
     public final CustomEnergyStorage storage = new CustomEnergyStorage(200000, 2000, 0);
 
     public boolean onlyMineOres;
@@ -86,7 +104,7 @@ public class TileEntityMiner extends TileEntityInventoryBase implements IButtonR
 
             if(!this.isRedstonePowered && this.ticksElapsed%5 == 0){
                 if(this.checkY != 0){
-                    int range = TileEntityPhantomface.upgradeRange(DEFAULT_RANGE, this.world, this.pos);
+                    int range = this.getBoostedRange(DEFAULT_RANGE);
                     if(this.checkY < 0){
                         this.checkY = this.pos.getY()-1;
                         this.checkX = -range;
@@ -94,17 +112,7 @@ public class TileEntityMiner extends TileEntityInventoryBase implements IButtonR
                     }
 
                     if(this.checkY > 0){
-                        if(this.mine()){
-                            this.checkX++;
-                            if(this.checkX > range){
-                                this.checkX = -range;
-                                this.checkZ++;
-                                if(this.checkZ > range){
-                                    this.checkZ = -range;
-                                    this.checkY--;
-                                }
-                            }
-                        }
+                        this.mineBatch(range);
                     }
                 }
             }
@@ -118,71 +126,150 @@ public class TileEntityMiner extends TileEntityInventoryBase implements IButtonR
         }
     }
 
-    private boolean mine(){
+    /**
+     * Walks through the area, skipping air and empty chunk sections without using energy,
+     * and mines as many real blocks as the config allows and the stored energy is enough for
+     */
+    private void mineBatch(int range){
         int actualUse = ENERGY_USE_PER_BLOCK*(this.onlyMineOres ? 3 : 1);
-        if(this.storage.getEnergyStored() >= actualUse){
-            BlockPos pos = new BlockPos(this.pos.getX()+this.checkX, this.checkY, this.pos.getZ()+this.checkZ);
-
-            IBlockState state = this.world.getBlockState(pos);
-            Block block = state.getBlock();
-            ItemStack stack = block.getPickBlock(state, new RayTraceResult(Type.BLOCK, new Vec3d(0,0,0), EnumFacing.DOWN, pos), world, pos, FakePlayerFactory.getMinecraft((WorldServer) world));
-            if(!block.isAir(this.world.getBlockState(pos), this.world, pos)){
-                if(block.getHarvestLevel(this.world.getBlockState(pos)) <= ItemDrill.HARVEST_LEVEL && state.getBlockHardness(this.world, pos) >= 0F && !(block instanceof BlockLiquid) && !(block instanceof IFluidBlock) && this.isMinable(block, stack)){
-                	NonNullList<ItemStack> drops = NonNullList.create();
-                    block.getDrops(drops, world, pos, state, 0);
-                    float chance = WorldUtil.fireFakeHarvestEventsForDropChance(drops, this.world, pos);
-
-                    if(chance > 0 && this.world.rand.nextFloat() <= chance){
-                        if(WorldUtil.addToInventory(this.slots, drops, false)){
-                            this.world.playEvent(2001, pos, Block.getStateId(this.world.getBlockState(pos)));
-                            this.world.setBlockToAir(pos);
-
-                            WorldUtil.addToInventory(this.slots, drops, true);
-                            this.markDirty();
-
-                            this.storage.extractEnergyInternal(actualUse, false);
-                            this.shootParticles(pos.getX(), pos.getY(), pos.getZ());
-                        }
-                        else{
-                            return false;
-                        }
+        int blocksLeft = ConfigIntValues.MINER_BLOCKS_PER_OPERATION.getValue();
+        int scansLeft = MAX_SCANS_PER_OPERATION;
+        BlockPos.MutableBlockPos pos = new BlockPos.MutableBlockPos();
+
+        while(this.checkY > 0 && blocksLeft > 0 && scansLeft > 0){
+            scansLeft--;
+
+            int x = this.pos.getX()+this.checkX;
+            int z = this.pos.getZ()+this.checkZ;
+            pos.setPos(x, this.checkY, z);
+
+            ExtendedBlockStorage section = this.world.getChunkFromBlockCoords(pos).getBlockStorageArray()[this.checkY >> 4];
+            if(section == Chunk.NULL_BLOCK_STORAGE || section.isEmpty()){
+                //Skip the rest of this row inside of the empty section
+                this.checkX = Math.min(range, ((x >> 4) << 4)+15-this.pos.getX());
+                this.advance(range);
+                continue;
+            }
+
+            IBlockState state = section.get(x & 15, this.checkY & 15, z & 15);
+            if(!state.getBlock().isAir(state, this.world, pos)){
+                if(this.storage.getEnergyStored() < actualUse){
+                    break;
+                }
+
+                int result = this.mine(pos.toImmutable(), state, actualUse);
+                if(result == MINE_FAILED){
+                    break;
+                }
+                else if(result == MINE_SUCCESS){
+                    blocksLeft--;
+                }
+            }
+            this.advance(range);
+        }
+    }
+
+    private void advance(int range){
+        this.checkX++;
+        if(this.checkX > range){
+            this.checkX = -range;
+            this.checkZ++;
+            if(this.checkZ > range){
+                this.checkZ = -range;
+                this.checkY--;
+            }
+        }
+    }
+
+    private int mine(BlockPos pos, IBlockState state, int actualUse){
+        Block block = state.getBlock();
+        if(block.getHarvestLevel(state) <= ItemDrill.HARVEST_LEVEL && state.getBlockHardness(this.world, pos) >= 0F && !(block instanceof BlockLiquid) && !(block instanceof IFluidBlock)){
+            if(this.isMinable(state, pos)){
+                NonNullList<ItemStack> drops = NonNullList.create();
+                block.getDrops(drops, this.world, pos, state, 0);
+                float chance = WorldUtil.fireFakeHarvestEventsForDropChance(drops, this.world, pos);
+
+                if(chance > 0 && this.world.rand.nextFloat() <= chance){
+                    if(WorldUtil.addToInventory(this.slots, drops, false)){
+                        this.world.playEvent(2001, pos, Block.getStateId(state));
+                        this.world.setBlockToAir(pos);
+
+                        WorldUtil.addToInventory(this.slots, drops, true);
+                        this.markDirty();
+
+                        this.storage.extractEnergyInternal(actualUse, false);
+                        this.shootParticles(pos.getX(), pos.getY(), pos.getZ());
+                        return MINE_SUCCESS;
+                    }
+                    else{
+                        return MINE_FAILED;
                     }
                 }
             }
-            return true;
+        }
+        return MINE_SKIPPED;
+    }
+
+    private boolean isMinable(IBlockState state, BlockPos pos){
+        checkMinableCaches();
+
+        Block block = state.getBlock();
+        Boolean blacklisted = BLACKLISTED_BLOCKS.get(block);
+        if(blacklisted == null){
+            blacklisted = isBlacklisted(block);
+            BLACKLISTED_BLOCKS.put(block, blacklisted);
+        }
+
+        if(!blacklisted){
+            if(!this.onlyMineOres){
+                return true;
+            }
+            else{
+                Boolean ore = ORE_STATES.get(state);
+                if(ore == null){
+                    ItemStack stack = block.getPickBlock(state, new RayTraceResult(Type.BLOCK, new Vec3d(0, 0, 0), EnumFacing.DOWN, pos), this.world, pos, FakePlayerFactory.getMinecraft((WorldServer)this.world));
+                    ore = isOre(block, stack);
+                    ORE_STATES.put(state, ore);
+                }
+                return ore;
+            }
         }
         return false;
     }
 
-    private boolean isMinable(Block block, ItemStack stack){
-        if(block != null){
-            if(!this.isBlacklisted(block)){
-                if(!this.onlyMineOres){
+    /**
+     * Clears the cached verdicts if the config lists they were built from have been reloaded
+     */
+    private static void checkMinableCaches(){
+        String[] blacklist = ConfigStringListValues.MINER_BLACKLIST.getValue();
+        String[] whitelist = ConfigStringListValues.MINER_EXTRA_WHITELIST.getValue();
+        if(blacklist != cachedBlacklist || whitelist != cachedWhitelist){
+            BLACKLISTED_BLOCKS.clear();
+            ORE_STATES.clear();
+            cachedBlacklist = blacklist;
+            cachedWhitelist = whitelist;
+        }
+    }
+
+    private static boolean isOre(Block block, ItemStack stack){
+        if(StackUtil.isValid(stack)){
+            int[] ids = OreDictionary.getOreIDs(stack);
+            for(int id : ids){
+                String name = OreDictionary.getOreName(id);
+                if(name.startsWith("ore") || name.startsWith("denseore")){
                     return true;
                 }
-                else{
-                    if(StackUtil.isValid(stack)){
-                        int[] ids = OreDictionary.getOreIDs(stack);
-                        for(int id : ids){
-                            String name = OreDictionary.getOreName(id);
-                            if(name.startsWith("ore") || name.startsWith("denseore")){
-                                return true;
-                            }
-                        }
-
-                        String reg = block.getRegistryName().toString();
-                        if(!reg.isEmpty()){
-                            for(String string : ConfigStringListValues.MINER_EXTRA_WHITELIST.getValue()){
-                                if(reg.equals(string)){
-                                    return true;
-                                }
-                            }
-                        }
+            }
+
+            String reg = block.getRegistryName().toString();
+            if(!reg.isEmpty()){
+                for(String string : ConfigStringListValues.MINER_EXTRA_WHITELIST.getValue()){
+                    if(reg.equals(string)){
+                        return true;
                     }
                 }
             }
         }
-
         return false;
     }
 
@@ -190,7 +277,7 @@ public class TileEntityMiner extends TileEntityInventoryBase implements IButtonR
         AssetUtil.spawnLaserWithTimeServer(this.world, this.getPos().getX(), this.getPos().getY(), this.getPos().getZ(), endX, endY, endZ, new float[]{65F/255F, 150F/255F, 2F/255F}, 10, 120, 0.1F, 0.8F);
     }
 
-    private boolean isBlacklisted(Block block){
+    private static boolean isBlacklisted(Block block){
         String reg = block.getRegistryName().toString();
         if(!reg.isEmpty()){
             for(String string : ConfigStringListValues.MINER_BLACKLIST.getValue()){
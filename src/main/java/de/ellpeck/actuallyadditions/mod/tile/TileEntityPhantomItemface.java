@@ -30,14 +30,11 @@ public class TileEntityPhantomItemface extends TileEntityPhantomface{
     }
 
     @Override
-    public boolean isBoundThingInRange(){
-        if(super.isBoundThingInRange()){
-            TileEntity tile = this.world.getTileEntity(this.getBoundPosition());
-            if(tile != null){
-                for(EnumFacing facing : EnumFacing.values()){
-                    if(tile.hasCapability(CapabilityItemHandler.ITEM_HANDLER_CAPABILITY, facing)){
-                        return true;
-                    }
+    protected boolean isBoundThingSupported(TileEntity tile){
+        if(tile != null){
+            for(EnumFacing facing : EnumFacing.values()){
+                if(tile.hasCapability(CapabilityItemHandler.ITEM_HANDLER_CAPABILITY, facing)){
+                    return true;
                 }
             }
         }
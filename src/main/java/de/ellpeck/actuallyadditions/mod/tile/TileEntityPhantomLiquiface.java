@@ -24,14 +24,11 @@ public class TileEntityPhantomLiquiface extends TileEntityPhantomface implements
     }
 
     @Override
-    public boolean isBoundThingInRange(){
-        if(super.isBoundThingInRange()){
-            TileEntity tile = this.world.getTileEntity(this.boundPosition);
-            if(tile != null && !(tile instanceof TileEntityLaserRelayFluids)){
-                for(EnumFacing facing : EnumFacing.values()){
-                    if(tile.hasCapability(CapabilityFluidHandler.FLUID_HANDLER_CAPABILITY, facing)){
-                        return true;
-                    }
+    protected boolean isBoundThingSupported(TileEntity tile){
+        if(tile != null && !(tile instanceof TileEntityLaserRelayFluids)){
+            for(EnumFacing facing : EnumFacing.values()){
+                if(tile.hasCapability(CapabilityFluidHandler.FLUID_HANDLER_CAPABILITY, facing)){
+                    return true;
                 }
             }
         }
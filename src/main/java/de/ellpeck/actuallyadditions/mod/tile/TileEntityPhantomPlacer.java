@@ -83,7 +83,7 @@ public class TileEntityPhantomPlacer extends TileEntityInventoryBase implements
     public void updateEntity(){
         super.updateEntity();
         if(!this.world.isRemote){
-            this.range = TileEntityPhantomface.upgradeRange(RANGE, this.world, this.pos);
+            this.range = this.getBoostedRange(RANGE);
 
             if(!this.hasBoundPosition()){
                 this.boundPosition = null;
@@ -21,6 +21,7 @@ import net.minecraft.util.EnumFacing;
 import net.minecraft.util.EnumParticleTypes;
 import net.minecraft.util.math.BlockPos;
 import net.minecraft.world.World;
+import net.minecraft.world.chunk.Chunk;
 import net.minecraftforge.common.capabilities.Capability;
 import net.minecraftforge.fml.relauncher.Side;
 import net.minecraftforge.fml.relauncher.SideOnly;
@@ -33,9 +34,18 @@ public abstract class TileEntityPhantomface extends TileEntityInventoryBase impl
     public int range;
     private int rangeBefore;
     private BlockPos boundPosBefore;
-    private Block boundBlockBefore;
+    private TileEntity boundTileBefore;
     private int lastStrength;
 
+    //The bound tile is looked up once and then kept until it gets invalidated,
+    //its chunk unloads, the binding or range changes, or a neighbor changes
+    private TileEntity boundTile;
+    private Chunk boundChunk;
+    private BlockPos cachedBoundPosition;
+    private int cachedRange = -1;
+    private boolean isBoundInRange;
+    private boolean needsBoundCacheUpdate = true;
+
     public TileEntityPhantomface(String name){
         super(0, name);
     }
@@ -85,8 +95,14 @@ public abstract class TileEntityPhantomface extends TileEntityInventoryBase impl
     @Override
     public void updateEntity(){
         super.updateEntity();
+
+        //A tile can appear at the bound position without anything telling us about it
+        if(this.boundTile == null){
+            this.needsBoundCacheUpdate = true;
+        }
+
         if(!this.world.isRemote){
-            this.range = upgradeRange(RANGE, this.world, this.getPos());
+            this.range = this.getBoostedRange(RANGE);
 
             if(!this.hasBoundPosition()){
                 this.boundPosition = null;
@@ -111,13 +127,13 @@ public abstract class TileEntityPhantomface extends TileEntityInventoryBase impl
     }
 
     protected boolean doesNeedUpdateSend(){
-        return this.boundPosition != this.boundPosBefore || (this.boundPosition != null && this.world.getBlockState(this.boundPosition).getBlock() != this.boundBlockBefore) || this.rangeBefore != this.range;
+        return this.boundPosition != this.boundPosBefore || this.boundTile != this.boundTileBefore || this.rangeBefore != this.range;
     }
 
     protected void onUpdateSent(){
         this.rangeBefore = this.range;
         this.boundPosBefore = this.boundPosition;
-        this.boundBlockBefore = this.boundPosition == null ? null : this.world.getBlockState(this.boundPosition).getBlock();
+        this.boundTileBefore = this.boundTile;
 
         if(this.boundPosition != null){
             this.world.notifyNeighborsOfStateChange(this.pos, this.world.getBlockState(this.boundPosition).getBlock(), false);
@@ -129,14 +145,63 @@ public abstract class TileEntityPhantomface extends TileEntityInventoryBase impl
 
     @Override
     public boolean hasBoundPosition(){
-        if(this.boundPosition != null){
-            if(this.world.getTileEntity(this.boundPosition) instanceof IPhantomTile || (this.getPos().getX() == this.boundPosition.getX() && this.getPos().getY() == this.boundPosition.getY() && this.getPos().getZ() == this.boundPosition.getZ())){
-                this.boundPosition = null;
-                return false;
+        this.updateBoundCache();
+        return this.boundPosition != null;
+    }
+
+    private void updateBoundCache(){
+        if(this.needsBoundCacheUpdate || this.boundPosition != this.cachedBoundPosition || this.range != this.cachedRange || (this.boundTile != null && this.boundTile.isInvalid()) || (this.boundChunk != null && !this.boundChunk.isLoaded())){
+            this.needsBoundCacheUpdate = false;
+            this.boundTile = null;
+            this.boundChunk = null;
+
+            if(this.boundPosition != null){
+                if(this.boundPosition.equals(this.pos)){
+                    this.boundPosition = null;
+                }
+                else if(this.world.isBlockLoaded(this.boundPosition)){
+                    TileEntity tile = this.world.getTileEntity(this.boundPosition);
+                    if(tile instanceof IPhantomTile){
+                        this.boundPosition = null;
+                    }
+                    else{
+                        this.boundTile = tile;
+                        this.boundChunk = this.world.getChunkFromBlockCoords(this.boundPosition);
+                    }
+                }
             }
-            return true;
+
+            this.cachedBoundPosition = this.boundPosition;
+            this.cachedRange = this.range;
+            this.isBoundInRange = this.boundPosition != null && this.boundPosition.distanceSq(this.pos) <= this.range*this.range && this.isBoundThingSupported(this.boundTile);
         }
-        return false;
+    }
+
+    /**
+     * Returns the tile at the bound position, or null if there is none or it isn't loaded
+     */
+    public TileEntity getBoundTile(){
+        this.updateBoundCache();
+        return this.boundTile;
+    }
+
+    /**
+     * Returns whether this face can proxy the thing it's bound to.
+     * This is only checked when the bound tile changes, so it shouldn't depend on anything else.
+     */
+    protected boolean isBoundThingSupported(TileEntity tile){
+        return true;
+    }
+
+    @Override
+    public boolean shouldSaveDataOnChangeOrWorldStart(){
+        return true;
+    }
+
+    @Override
+    public void saveDataOnChangeOrWorldStart(){
+        super.saveDataOnChangeOrWorldStart();
+        this.needsBoundCacheUpdate = true;
     }
 
     @SideOnly(Side.CLIENT)
@@ -156,7 +221,8 @@ public abstract class TileEntityPhantomface extends TileEntityInventoryBase impl
 
     @Override
     public boolean isBoundThingInRange(){
-        return this.hasBoundPosition() && this.boundPosition.distanceSq(this.getPos()) <= this.range*this.range;
+        this.updateBoundCache();
+        return this.isBoundInRange;
     }
 
     @Override
@@ -183,8 +249,8 @@ public abstract class TileEntityPhantomface extends TileEntityInventoryBase impl
 
     @Override
     public boolean hasCapability(Capability<?> capability, EnumFacing facing){
-        if(this.isBoundThingInRange() && this.isCapabilitySupported(capability)){
-            TileEntity tile = this.world.getTileEntity(this.getBoundPosition());
+        if(this.isCapabilitySupported(capability) && this.isBoundThingInRange()){
+            TileEntity tile = this.boundTile;
             if(tile != null){
                 return tile.hasCapability(capability, facing);
             }
@@ -194,8 +260,8 @@ public abstract class TileEntityPhantomface extends TileEntityInventoryBase impl
 
     @Override
     public <T> T getCapability(Capability<T> capability, EnumFacing facing){
-        if(this.isBoundThingInRange() && this.isCapabilitySupported(capability)){
-            TileEntity tile = this.world.getTileEntity(this.getBoundPosition());
+        if(this.isCapabilitySupported(capability) && this.isBoundThingInRange()){
+            TileEntity tile = this.boundTile;
             if(tile != null){
                 return tile.getCapability(capability, facing);
             }
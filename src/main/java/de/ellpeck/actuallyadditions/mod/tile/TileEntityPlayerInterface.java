@@ -68,7 +68,7 @@ public class TileEntityPlayerInterface extends TileEntityBase implements IEnergy
         if(!this.world.isRemote){
             boolean changed = false;
 
-            this.range = TileEntityPhantomface.upgradeRange(DEFAULT_RANGE, this.world, this.pos);
+            this.range = this.getBoostedRange(DEFAULT_RANGE);
 
             EntityPlayer player = this.getPlayer();
             if(player != null){
@@ -11,24 +11,39 @@
 package de.ellpeck.actuallyadditions.mod.tile;
 
 import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Set;
 
+import de.ellpeck.actuallyadditions.mod.config.values.ConfigIntValues;
 import de.ellpeck.actuallyadditions.mod.network.gui.IButtonReactor;
+import de.ellpeck.actuallyadditions.mod.util.ItemEntityTracker;
 import de.ellpeck.actuallyadditions.mod.util.StackUtil;
-import de.ellpeck.actuallyadditions.mod.util.WorldUtil;
 import net.minecraft.entity.item.EntityItem;
 import net.minecraft.entity.player.EntityPlayer;
 import net.minecraft.item.ItemStack;
 import net.minecraft.nbt.NBTTagCompound;
 import net.minecraft.util.EnumParticleTypes;
 import net.minecraft.util.math.AxisAlignedBB;
+import net.minecraft.util.math.ChunkPos;
 import net.minecraft.world.WorldServer;
 
-public class TileEntityRangedCollector extends TileEntityInventoryBase implements IButtonReactor{
+public class TileEntityRangedCollector extends TileEntityInventoryBase implements IButtonReactor, ItemEntityTracker.IItemListener{
 
     public static final int RANGE = 6;
     public FilterSettings filter = new FilterSettings(12, true, true, false, false, 0, -1000);
 
+    //The items that came into range and haven't been tried to be collected yet
+    private final Set<EntityItem> pendingItems = new HashSet<EntityItem>();
+    //The items that were in range but couldn't be collected, tried again when the inventory changes
+    private final Set<EntityItem> itemsThatDidntFit = new HashSet<EntityItem>();
+    private final List<Long> trackedChunks = new ArrayList<Long>();
+    private AxisAlignedBB collectionArea;
+    private boolean needsFullCheck = true;
+    private boolean needsRefit;
+    private boolean isCollecting;
+
     public TileEntityRangedCollector(){
         super(6, "rangedCollector");
     }
@@ -54,33 +69,168 @@ public class TileEntityRangedCollector extends TileEntityInventoryBase implement
 
     @Override
     public void activateOnPulse(){
-        List<EntityItem> items = this.world.getEntitiesWithinAABB(EntityItem.class, new AxisAlignedBB(this.pos.getX()-RANGE, this.pos.getY()-RANGE, this.pos.getZ()-RANGE, this.pos.getX()+RANGE, this.pos.getY()+RANGE, this.pos.getZ()+RANGE));
-        if(!items.isEmpty()){
-            for(EntityItem item : items){
-                if(!item.isDead && !item.cannotPickup() && StackUtil.isValid(item.getItem())){
-                    ItemStack toAdd = item.getItem().copy();
-                    if(this.filter.check(toAdd)){
-                        ArrayList<ItemStack> checkList = new ArrayList<ItemStack>();
-                        checkList.add(toAdd);
-                        if(WorldUtil.addToInventory(this.slots, checkList, false)){
-                            WorldUtil.addToInventory(this.slots, checkList, true);
-
-                            ((WorldServer)this.world).spawnParticle(EnumParticleTypes.CLOUD, false, item.posX, item.posY+0.45F, item.posZ, 5, 0, 0, 0, 0.03D);
-
-                            item.setDead();
+        this.needsFullCheck = true;
+        this.collectItems();
+    }
+
+    private void collectItems(){
+        if(this.trackedChunks.isEmpty()){
+            this.trackChunks();
+        }
+
+        AxisAlignedBB area = this.getCollectionArea();
+        if(this.needsFullCheck){
+            this.needsFullCheck = false;
+            this.needsRefit = false;
+            this.itemsThatDidntFit.clear();
+
+            for(long chunk : this.trackedChunks){
+                Set<EntityItem> items = ItemEntityTracker.getItems(this.world, chunk);
+                if(items != null){
+                    Iterator<EntityItem> iterator = items.iterator();
+                    while(iterator.hasNext()){
+                        EntityItem item = iterator.next();
+                        //Items that despawned or got picked up are never removed otherwise
+                        if(item.isDead || this.world.getEntityByID(item.getEntityId()) != item){
+                            iterator.remove();
                         }
+                        else if(area.intersects(item.getEntityBoundingBox())){
+                            this.pendingItems.add(item);
+                        }
+                    }
+                }
+            }
+        }
+        else if(this.needsRefit){
+            this.needsRefit = false;
+            this.pendingItems.addAll(this.itemsThatDidntFit);
+            this.itemsThatDidntFit.clear();
+        }
+
+        if(!this.pendingItems.isEmpty()){
+            Iterator<EntityItem> iterator = this.pendingItems.iterator();
+            while(iterator.hasNext()){
+                EntityItem item = iterator.next();
+                //Items in chunks that unloaded are not dead, but they aren't in the world anymore either
+                if(item.isDead || this.world.getEntityByID(item.getEntityId()) != item || !area.intersects(item.getEntityBoundingBox())){
+                    iterator.remove();
+                }
+                //Items that can't be picked up yet stay until they can be
+                else if(!item.cannotPickup()){
+                    iterator.remove();
+
+                    //If the item doesn't fit, it gets looked at again once the inventory changes
+                    if(!this.collect(item)){
+                        this.itemsThatDidntFit.add(item);
                     }
                 }
             }
         }
     }
 
+    private boolean collect(EntityItem item){
+        ItemStack stack = item.getItem();
+        if(StackUtil.isValid(stack) && this.filter.check(stack) && this.canFit(stack)){
+            this.isCollecting = true;
+            ItemStack toAdd = stack.copy();
+            for(int i = 0; i < this.slots.getSlots() && StackUtil.isValid(toAdd); i++){
+                toAdd = this.slots.insertItemInternal(i, toAdd, false);
+            }
+            this.isCollecting = false;
+
+            ((WorldServer)this.world).spawnParticle(EnumParticleTypes.CLOUD, false, item.posX, item.posY+0.45F, item.posZ, 5, 0, 0, 0, 0.03D);
+
+            item.setDead();
+            return true;
+        }
+        return false;
+    }
+
+    private boolean canFit(ItemStack stack){
+        ItemStack remaining = stack;
+        for(int i = 0; i < this.slots.getSlots(); i++){
+            remaining = this.slots.insertItemInternal(i, remaining, true);
+            if(!StackUtil.isValid(remaining)){
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public void onItemAdded(EntityItem item){
+        if(!this.isRedstonePowered && !this.isPulseMode && this.getCollectionArea().intersects(item.getEntityBoundingBox())){
+            this.pendingItems.add(item);
+        }
+    }
+
+    private AxisAlignedBB getCollectionArea(){
+        if(this.collectionArea == null){
+            this.collectionArea = new AxisAlignedBB(this.pos.getX()-RANGE, this.pos.getY()-RANGE, this.pos.getZ()-RANGE, this.pos.getX()+RANGE, this.pos.getY()+RANGE, this.pos.getZ()+RANGE);
+        }
+        return this.collectionArea;
+    }
+
+    private void trackChunks(){
+        //One block further so that items whose center is just outside of the area but that still touch it are included
+        for(int x = (this.pos.getX()-RANGE-1) >> 4; x <= (this.pos.getX()+RANGE+1) >> 4; x++){
+            for(int z = (this.pos.getZ()-RANGE-1) >> 4; z <= (this.pos.getZ()+RANGE+1) >> 4; z++){
+                long chunk = ChunkPos.asLong(x, z);
+                ItemEntityTracker.subscribe(this.world, chunk, this);
+                this.trackedChunks.add(chunk);
+            }
+        }
+        this.needsFullCheck = true;
+    }
+
+    private void untrackChunks(){
+        for(long chunk : this.trackedChunks){
+            ItemEntityTracker.unsubscribe(this.world, chunk, this);
+        }
+        this.trackedChunks.clear();
+        this.pendingItems.clear();
+        this.itemsThatDidntFit.clear();
+    }
+
+    @Override
+    public void onChunkUnload(){
+        super.onChunkUnload();
+
+        if(!this.world.isRemote){
+            this.untrackChunks();
+        }
+    }
+
+    @Override
+    public void invalidate(){
+        super.invalidate();
+
+        if(!this.world.isRemote){
+            this.untrackChunks();
+        }
+    }
+
+    @Override
+    public void markDirty(){
+        super.markDirty();
+
+        //Space might have been freed up, so items that didn't fit before might now
+        if(!this.isCollecting){
+            this.needsRefit = true;
+        }
+    }
+
     @Override
     public void updateEntity(){
         super.updateEntity();
         if(!this.world.isRemote){
+            int interval = ConfigIntValues.RANGED_COLLECTOR_POLL_INTERVAL.getValue();
+            if(interval > 0 && this.ticksElapsed%interval == 0){
+                this.needsFullCheck = true;
+            }
+
             if(!this.isRedstonePowered && !this.isPulseMode){
-                this.activateOnPulse();
+                this.collectItems();
             }
 
             if(this.filter.needsUpdateSend() && this.sendUpdateWithInterval()){
@@ -102,5 +252,6 @@ public class TileEntityRangedCollector extends TileEntityInventoryBase implement
     @Override
     public void onButtonPressed(int buttonID, EntityPlayer player){
         this.filter.onButtonPressed(buttonID);
+        this.needsFullCheck = true;
     }
 }
@@ -0,0 +1,142 @@
+/*
+ * This file ("ItemEntityTracker.java") is part of the Actually Additions mod for Minecraft.
+ * It is created and owned by Ellpeck and distributed
+ * under the Actually Additions License to be found at
+ * http://ellpeck.de/actaddlicense
+ * View the source code at https://github.com/Ellpeck/ActuallyAdditions
+ *
+ * © 2015-2017 Ellpeck
+ */
+
+package de.ellpeck.actuallyadditions.mod.util;
+
+import net.minecraft.entity.item.EntityItem;
+import net.minecraft.util.math.ChunkPos;
+import net.minecraft.util.math.MathHelper;
+import net.minecraft.world.World;
+import net.minecraft.world.chunk.Chunk;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Keeps track of the item entities in the chunks that something has subscribed to,
+ * so that things that collect items don't have to search the world for them every tick.
+ * It's fed by the entity events in CommonEvents and only exists on the server.
+ */
+public final class ItemEntityTracker{
+
+    private static final Map<World, Map<Long, TrackedChunk>> TRACKED_CHUNKS = new HashMap<World, Map<Long, TrackedChunk>>();
+
+    public static void subscribe(World world, long chunk, IItemListener listener){
+        Map<Long, TrackedChunk> chunks = TRACKED_CHUNKS.get(world);
+        if(chunks == null){
+            chunks = new HashMap<Long, TrackedChunk>();
+            TRACKED_CHUNKS.put(world, chunks);
+        }
+
+        TrackedChunk tracked = chunks.get(chunk);
+        if(tracked == null){
+            tracked = new TrackedChunk();
+            chunks.put(chunk, tracked);
+
+            //Items that are already there never join the world again, so they have to be looked up once
+            Chunk loaded = world.getChunkProvider().getLoadedChunk((int)chunk, (int)(chunk >> 32));
+            if(loaded != null){
+                for(int i = 0; i < loaded.getEntityLists().length; i++){
+                    for(EntityItem item : loaded.getEntityLists()[i].getByClass(EntityItem.class)){
+                        tracked.items.add(item);
+                    }
+                }
+            }
+        }
+        tracked.listeners.add(listener);
+    }
+
+    public static void unsubscribe(World world, long chunk, IItemListener listener){
+        Map<Long, TrackedChunk> chunks = TRACKED_CHUNKS.get(world);
+        if(chunks != null){
+            TrackedChunk tracked = chunks.get(chunk);
+            if(tracked != null){
+                tracked.listeners.remove(listener);
+                if(tracked.listeners.isEmpty()){
+                    chunks.remove(chunk);
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the items in a chunk that was subscribed to, or null if nothing is subscribed to it.
+     * The set can contain items that have died since, so that has to be checked for.
+     * Nothing else removes those, so whoever goes through the set should remove them from it.
+     */
+    public static Set<EntityItem> getItems(World world, long chunk){
+        Map<Long, TrackedChunk> chunks = TRACKED_CHUNKS.get(world);
+        if(chunks != null){
+            TrackedChunk tracked = chunks.get(chunk);
+            if(tracked != null){
+                return tracked.items;
+            }
+        }
+        return null;
+    }
+
+    public static void onItemJoinWorld(EntityItem item){
+        if(!item.world.isRemote){
+            addToChunk(item, ChunkPos.asLong(MathHelper.floor(item.posX) >> 4, MathHelper.floor(item.posZ) >> 4));
+        }
+    }
+
+    public static void onItemEnterChunk(EntityItem item, int oldX, int oldZ, int newX, int newZ){
+        if(!item.world.isRemote){
+            Set<EntityItem> oldItems = getItems(item.world, ChunkPos.asLong(oldX, oldZ));
+            if(oldItems != null){
+                oldItems.remove(item);
+            }
+
+            addToChunk(item, ChunkPos.asLong(newX, newZ));
+        }
+    }
+
+    private static void addToChunk(EntityItem item, long chunk){
+        Map<Long, TrackedChunk> chunks = TRACKED_CHUNKS.get(item.world);
+        if(chunks != null){
+            TrackedChunk tracked = chunks.get(chunk);
+            if(tracked != null && tracked.items.add(item)){
+                for(IItemListener listener : tracked.listeners){
+                    listener.onItemAdded(item);
+                }
+            }
+        }
+    }
+
+    public static void onChunkUnload(World world, ChunkPos pos){
+        if(!world.isRemote){
+            //The items get loaded back in through joining the world again
+            Set<EntityItem> items = getItems(world, ChunkPos.asLong(pos.x, pos.z));
+            if(items != null){
+                items.clear();
+            }
+        }
+    }
+
+    public static void onWorldUnload(World world){
+        if(!world.isRemote){
+            TRACKED_CHUNKS.remove(world);
+        }
+    }
+
+    public interface IItemListener{
+
+        void onItemAdded(EntityItem item);
+    }
+
+    private static class TrackedChunk{
+
+        public final Set<EntityItem> items = new HashSet<EntityItem>();
+        public final Set<IItemListener> listeners = new HashSet<IItemListener>();
+    }
+}
@@ -0,0 +1,197 @@
+/*
+ * This file ("TickProfiler.java") is part of the Actually Additions mod for Minecraft.
+ * It is created and owned by Ellpeck and distributed
+ * under the Actually Additions License to be found at
+ * http://ellpeck.de/actaddlicense
+ * View the source code at https://github.com/Ellpeck/ActuallyAdditions
+ *
+ * © 2015-2017 Ellpeck
+ */
+
+package de.ellpeck.actuallyadditions.mod.util;
+
+import de.ellpeck.actuallyadditions.api.laser.IConnectionPair;
+import de.ellpeck.actuallyadditions.api.laser.Network;
+import de.ellpeck.actuallyadditions.mod.data.WorldData;
+import de.ellpeck.actuallyadditions.mod.data.WorldData.DimensionData;
+import net.minecraft.tileentity.TileEntity;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.world.World;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Measures how much server time tiles and laser networks take up.
+ * While it's not running, the only cost is the check of isRunning,
+ * so the calls to it can stay in the update code.
+ */
+public final class TickProfiler{
+
+    private static final Comparator<Entry> MOST_TIME_FIRST = new Comparator<Entry>(){
+        @Override
+        public int compare(Entry first, Entry second){
+            return Long.compare(second.nanos, first.nanos);
+        }
+    };
+
+    private static final Map<Class<? extends TileEntity>, Entry> TILE_CLASSES = new HashMap<Class<? extends TileEntity>, Entry>();
+    private static final Map<Integer, Map<BlockPos, Entry>> TILE_POSITIONS = new HashMap<Integer, Map<BlockPos, Entry>>();
+    private static final Map<Network, Entry> NETWORKS = new IdentityHashMap<Network, Entry>();
+
+    private static boolean isRunning;
+    private static long startTime;
+    private static long runTime;
+
+    /**
+     * Returns whether time spent in the given world should be recorded.
+     * Only the server is profiled, so that an integrated client doesn't write into the data at the same time.
+     */
+    public static boolean isProfiling(World world){
+        return isRunning && world != null && !world.isRemote;
+    }
+
+    public static boolean isRunning(){
+        return isRunning;
+    }
+
+    public static void start(){
+        if(!isRunning){
+            isRunning = true;
+            startTime = System.nanoTime();
+        }
+    }
+
+    public static void stop(){
+        if(isRunning){
+            isRunning = false;
+            runTime += System.nanoTime()-startTime;
+        }
+    }
+
+    public static void reset(){
+        TILE_CLASSES.clear();
+        TILE_POSITIONS.clear();
+        NETWORKS.clear();
+
+        runTime = 0;
+        startTime = System.nanoTime();
+    }
+
+    public static void addTileTime(TileEntity tile, long nanos){
+        Class<? extends TileEntity> tileClass = tile.getClass();
+        Entry classEntry = TILE_CLASSES.get(tileClass);
+        if(classEntry == null){
+            classEntry = new Entry(tileClass.getSimpleName());
+            TILE_CLASSES.put(tileClass, classEntry);
+        }
+        classEntry.add(nanos);
+
+        int dimension = tile.getWorld().provider.getDimension();
+        Map<BlockPos, Entry> positions = TILE_POSITIONS.get(dimension);
+        if(positions == null){
+            positions = new HashMap<BlockPos, Entry>();
+            TILE_POSITIONS.put(dimension, positions);
+        }
+
+        //The position of a tile never changes, so it can be used as the key directly
+        BlockPos pos = tile.getPos();
+        Entry posEntry = positions.get(pos);
+        if(posEntry == null){
+            posEntry = new Entry(tileClass.getSimpleName()+" at "+pos.getX()+", "+pos.getY()+", "+pos.getZ()+" in dimension "+dimension);
+            positions.put(pos, posEntry);
+        }
+        posEntry.add(nanos);
+    }
+
+    public static void addNetworkTime(Network network, String type, long nanos){
+        Entry entry = NETWORKS.get(network);
+        if(entry == null){
+            entry = new Entry(getNetworkName(network, type));
+            NETWORKS.put(network, entry);
+        }
+        entry.add(nanos);
+    }
+
+    private static String getNetworkName(Network network, String type){
+        String name = type+" network with "+network.connections.size()+" connections";
+        for(IConnectionPair pair : network.connections){
+            BlockPos pos = pair.getPositions()[0];
+            return name+" at "+pos.getX()+", "+pos.getY()+", "+pos.getZ();
+        }
+        return name;
+    }
+
+    public static List<Entry> getTopTileClasses(int amount){
+        return getTop(TILE_CLASSES.values(), amount);
+    }
+
+    public static List<Entry> getTopTilePositions(int amount){
+        List<Entry> all = new ArrayList<Entry>();
+        for(Map<BlockPos, Entry> positions : TILE_POSITIONS.values()){
+            all.addAll(positions.values());
+        }
+        return getTop(all, amount);
+    }
+
+    /**
+     * Networks that have been merged into others or split up since they were profiled aren't in the world data anymore,
+     * so they are left out and forgotten
+     */
+    public static List<Entry> getTopNetworks(WorldData data, int amount){
+        Iterator<Network> networks = NETWORKS.keySet().iterator();
+        while(networks.hasNext()){
+            if(!isStillRegistered(data, networks.next())){
+                networks.remove();
+            }
+        }
+        return getTop(NETWORKS.values(), amount);
+    }
+
+    private static boolean isStillRegistered(WorldData data, Network network){
+        for(DimensionData dimData : data.dimensionData.values()){
+            if(dimData.laserRelayNetworks.contains(network)){
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static List<Entry> getTop(Iterable<Entry> entries, int amount){
+        List<Entry> list = new ArrayList<Entry>();
+        for(Entry entry : entries){
+            list.add(entry);
+        }
+        Collections.sort(list, MOST_TIME_FIRST);
+        return list.size() > amount ? list.subList(0, amount) : list;
+    }
+
+    /**
+     * Returns the amount of nanoseconds that the profiler has been running for since the last reset
+     */
+    public static long getProfiledTime(){
+        return isRunning ? runTime+System.nanoTime()-startTime : runTime;
+    }
+
+    public static class Entry{
+
+        public final String name;
+        public long nanos;
+        public int calls;
+
+        public Entry(String name){
+            this.name = name;
+        }
+
+        public void add(long nanos){
+            this.nanos += nanos;
+            this.calls++;
+        }
+    }
+}
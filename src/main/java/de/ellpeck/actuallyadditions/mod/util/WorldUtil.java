@@ -145,17 +145,17 @@ public final class WorldUtil {
 		if (maxTransfer > 0) {
 			EnumFacing opp = sideTo == null ? null : sideTo.getOpposite();
 			if (tileFrom.hasCapability(CapabilityEnergy.ENERGY, sideTo) && tileTo.hasCapability(CapabilityEnergy.ENERGY, opp)) {
-				IEnergyStorage handlerFrom = tileFrom.getCapability(CapabilityEnergy.ENERGY, sideTo);
-				IEnergyStorage handlerTo = tileTo.getCapability(CapabilityEnergy.ENERGY, opp);
-
-				if (handlerFrom != null && handlerTo != null) {
-					int drain = handlerFrom.extractEnergy(maxTransfer, true);
-					if (drain > 0) {
-						int filled = handlerTo.receiveEnergy(drain, false);
-						handlerFrom.extractEnergy(filled, false);
-						return;
-					}
-				}
+				doEnergyInteraction(tileFrom.getCapability(CapabilityEnergy.ENERGY, sideTo), tileTo.getCapability(CapabilityEnergy.ENERGY, opp), maxTransfer);
+			}
+		}
+	}
+
+	public static void doEnergyInteraction(IEnergyStorage handlerFrom, IEnergyStorage handlerTo, int maxTransfer) {
+		if (maxTransfer > 0 && handlerFrom != null && handlerTo != null) {
+			int drain = handlerFrom.extractEnergy(maxTransfer, true);
+			if (drain > 0) {
+				int filled = handlerTo.receiveEnergy(drain, false);
+				handlerFrom.extractEnergy(filled, false);
 			}
 		}
 	}
@@ -163,13 +163,17 @@ public final class WorldUtil {
 	public static void doFluidInteraction(TileEntity tileFrom, TileEntity tileTo, EnumFacing sideTo, int maxTransfer) {
 		if (maxTransfer > 0) {
 			if (tileFrom.hasCapability(CapabilityFluidHandler.FLUID_HANDLER_CAPABILITY, sideTo) && tileTo.hasCapability(CapabilityFluidHandler.FLUID_HANDLER_CAPABILITY, sideTo.getOpposite())) {
-				IFluidHandler handlerFrom = tileFrom.getCapability(CapabilityFluidHandler.FLUID_HANDLER_CAPABILITY, sideTo);
-				IFluidHandler handlerTo = tileTo.getCapability(CapabilityFluidHandler.FLUID_HANDLER_CAPABILITY, sideTo.getOpposite());
-				FluidStack drain = handlerFrom.drain(maxTransfer, false);
-				if (drain != null) {
-					int filled = handlerTo.fill(drain.copy(), true);
-					handlerFrom.drain(filled, true);
-				}
+				doFluidInteraction(tileFrom.getCapability(CapabilityFluidHandler.FLUID_HANDLER_CAPABILITY, sideTo), tileTo.getCapability(CapabilityFluidHandler.FLUID_HANDLER_CAPABILITY, sideTo.getOpposite()), maxTransfer);
+			}
+		}
+	}
+
+	public static void doFluidInteraction(IFluidHandler handlerFrom, IFluidHandler handlerTo, int maxTransfer) {
+		if (maxTransfer > 0 && handlerFrom != null && handlerTo != null) {
+			FluidStack drain = handlerFrom.drain(maxTransfer, false);
+			if (drain != null) {
+				int filled = handlerTo.fill(drain.copy(), true);
+				handlerFrom.drain(filled, true);
 			}
 		}
 	}
@@ -17,10 +17,13 @@ import net.minecraft.item.ItemStack;
 import net.minecraftforge.items.IItemHandler;
 import org.cyclops.commoncapabilities.api.capability.itemhandler.DefaultSlotlessItemHandlerWrapper;
 import org.cyclops.commoncapabilities.api.capability.itemhandler.ISlotlessItemHandler;
+import org.cyclops.commoncapabilities.api.capability.itemhandler.ItemMatch;
+
+import java.util.BitSet;
 
 public final class CommonCapsUtil{
 
-    public static ISlotlessItemHandler createSlotlessItemViewerHandler(final TileEntityItemViewer tile, IItemHandler normalHandler){
+    public static ISlotlessItemHandler createSlotlessItemViewerHandler(final TileEntityItemViewer tile, final IItemHandler normalHandler){
         return new DefaultSlotlessItemHandlerWrapper(normalHandler){
             @Override
             public ItemStack insertItem(ItemStack stack, boolean simulate){
@@ -97,9 +100,63 @@ public final class CommonCapsUtil{
                         }
                     }
                 }
-                return super.extractItem(matchStack, matchFlags, simulate);
+
+                if((matchFlags & ItemMatch.ITEM) != 0 && StackUtil.isValid(matchStack)){
+                    return extractIndexedItem(tile, normalHandler, matchStack, matchFlags, simulate);
+                }
+                else{
+                    return super.extractItem(matchStack, matchFlags, simulate);
+                }
             }
         };
     }
 
+    private static ItemStack extractIndexedItem(TileEntityItemViewer tile, IItemHandler normalHandler, ItemStack matchStack, int matchFlags, boolean simulate){
+        //Slots that don't have the item anymore are fixed up here
+        BitSet slots = tile.getSlotsWithItem(matchStack.getItem());
+        if(slots != null){
+            for(int slot = slots.nextSetBit(0); slot >= 0; slot = slots.nextSetBit(slot+1)){
+                ItemStack stack = normalHandler.getStackInSlot(slot);
+                if(ItemMatch.areItemStacksEqual(stack, matchStack, matchFlags & ~ItemMatch.STACKSIZE)){
+                    ItemStack extracted = extractFromSlot(normalHandler, slot, matchStack, matchFlags, simulate);
+                    if(StackUtil.isValid(extracted)){
+                        return extracted;
+                    }
+                }
+                else if(!StackUtil.isValid(stack) || stack.getItem() != matchStack.getItem()){
+                    tile.updateItemIndex(slot);
+                }
+            }
+        }
+
+        //Items that were put in from outside the network might not be indexed yet, so the other slots get looked through and indexed
+        for(int slot = 0; slot < normalHandler.getSlots(); slot++){
+            if(slots == null || !slots.get(slot)){
+                tile.updateItemIndex(slot);
+
+                ItemStack stack = normalHandler.getStackInSlot(slot);
+                if(ItemMatch.areItemStacksEqual(stack, matchStack, matchFlags & ~ItemMatch.STACKSIZE)){
+                    ItemStack extracted = extractFromSlot(normalHandler, slot, matchStack, matchFlags, simulate);
+                    if(StackUtil.isValid(extracted)){
+                        return extracted;
+                    }
+                }
+            }
+        }
+        return StackUtil.getEmpty();
+    }
+
+    private static ItemStack extractFromSlot(IItemHandler normalHandler, int slot, ItemStack matchStack, int matchFlags, boolean simulate){
+        ItemStack would = normalHandler.extractItem(slot, matchStack.getCount(), true);
+        if(StackUtil.isValid(would) && ItemMatch.areItemStacksEqual(would, matchStack, matchFlags)){
+            if(simulate){
+                return would;
+            }
+            else{
+                return normalHandler.extractItem(slot, matchStack.getCount(), false);
+            }
+        }
+        return StackUtil.getEmpty();
+    }
+
 }